@@ -0,0 +1,96 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.MovieBookingApplication;
+import com.moviebooking.dto.MovieRequest;
+import com.moviebooking.dto.ShowtimeRequest;
+import com.moviebooking.entity.User;
+import com.moviebooking.repository.UserRepository;
+import com.moviebooking.service.MovieService;
+import com.moviebooking.service.ShowtimeService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the application against a private in-memory H2 database (MySQL mode) and creates the
+ * movies, showtimes and users the benchmarks need through the regular services.
+ */
+final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext start(String databaseName) {
+        return start(databaseName, Map.of());
+    }
+
+    static ConfigurableApplicationContext start(String databaseName, Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", "jdbc:h2:mem:" + databaseName
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("spring.jpa.properties.hibernate.use_sql_comments", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        // H2 rejects some of the MySQL-style index names; the schema is still usable
+        properties.put("logging.level.org.hibernate.tool.schema", "ERROR");
+        properties.putAll(overrides);
+
+        // Takes precedence over the MySQL settings in the application's own properties
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+
+        return new SpringApplicationBuilder(MovieBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .environment(environment)
+                .run();
+    }
+
+    static Integer createMovie(ConfigurableApplicationContext context, String title) {
+        return createMovie(context, title, "Drama", "Benchmark fixture");
+    }
+
+    static Integer createMovie(ConfigurableApplicationContext context, String title, String genre, String description) {
+        MovieRequest request = new MovieRequest();
+        request.setTitle(title);
+        request.setDescription(description);
+        request.setGenre(genre);
+        request.setPosterUrl("https://example.com/poster.jpg");
+        return context.getBean(MovieService.class).createMovie(request).getId();
+    }
+
+    static Integer createShowtime(ConfigurableApplicationContext context, Integer movieId, int daysAhead, int totalSeats) {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(daysAhead).withNano(0);
+
+        ShowtimeRequest request = new ShowtimeRequest();
+        request.setMovieId(movieId);
+        request.setStartTime(startTime);
+        request.setEndTime(startTime.plusHours(2));
+        request.setTotalSeats(totalSeats);
+        return context.getBean(ShowtimeService.class).createShowtime(request).getId();
+    }
+
+    static int[] createUsers(ConfigurableApplicationContext context, int count) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        int[] userIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setName("Benchmark User " + i);
+            user.setEmail("bench" + i + "@moviebooking.com");
+            user.setPassword("not-used");
+            userIds[i] = userRepository.save(user).getId();
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,75 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.service.SeatLayout;
+import com.moviebooking.service.SeatStateEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SeatStateEngine#claimBestAvailable} on a 1000-seat showtime that is already partly sold,
+ * with the claim released again so the hall stays at the same occupancy. Only the in-memory
+ * search and claim are measured; nothing is written to the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class BestAvailableBenchmark {
+    private static final int TOTAL_SEATS = 1000;
+
+    // Percentage of seats sold at random before the run
+    @Param({"0", "50", "90"})
+    public int occupancy;
+
+    @Param({"2", "6"})
+    public int quantity;
+
+    private ConfigurableApplicationContext context;
+    private SeatStateEngine seatStateEngine;
+    private Showtime showtime;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start("bestavailable");
+        seatStateEngine = context.getBean(SeatStateEngine.class);
+
+        Integer movieId = BenchmarkSupport.createMovie(context, "Full House");
+        Integer showtimeId = BenchmarkSupport.createShowtime(context, movieId, 1, TOTAL_SEATS);
+        showtime = context.getBean(ShowtimeRepository.class).findById(showtimeId).orElseThrow();
+
+        SeatLayout layout = SeatLayout.forTotalSeats(TOTAL_SEATS);
+        Random random = new Random(42);
+        for (int index = 0; index < TOTAL_SEATS; index++) {
+            if (random.nextInt(100) < occupancy) {
+                seatStateEngine.claim(showtime, List.of(layout.seatNumberAt(index)));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object claimAndRelease() {
+        try {
+            SeatStateEngine.SeatClaim claim = seatStateEngine.claimBestAvailable(showtime, quantity);
+            claim.release();
+            return claim;
+        } catch (BadRequestException e) {
+            // No row has a free block this large
+            return e;
+        }
+    }
+}
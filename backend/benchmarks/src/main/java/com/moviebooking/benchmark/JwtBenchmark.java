@@ -0,0 +1,94 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.security.JwtUtils;
+import com.moviebooking.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of verifying a bearer token: the original path (three parses, each rebuilding the
+ * key and parser) against the shared parser, with and without the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private static final String SECRET = "MovieBookingPlatformSecretKeyForJWTTokenGenerationAndValidation2024";
+
+    private AnnotationConfigApplicationContext cachedContext;
+    private AnnotationConfigApplicationContext uncachedContext;
+    private JwtUtils cachedJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedContext = createContext(10_000);
+        uncachedContext = createContext(0);
+        cachedJwtUtils = cachedContext.getBean(JwtUtils.class);
+        uncachedJwtUtils = uncachedContext.getBean(JwtUtils.class);
+
+        UserPrincipal principal = new UserPrincipal(42, "Bench User", "bench@moviebooking.com", null, 0,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = cachedJwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        cachedContext.close();
+        uncachedContext.close();
+    }
+
+    @Benchmark
+    public Object rebuildKeyAndParsePerCall() {
+        // validateJwtToken, getUserNameFromJwtToken and getUserIdFromJwtToken each parsed the token from scratch
+        Object result = null;
+        for (int i = 0; i < 3; i++) {
+            result = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public UserPrincipal sharedParserSingleParse() {
+        Claims claims = uncachedJwtUtils.parseJwtToken(token).orElseThrow();
+        return uncachedJwtUtils.createPrincipal(claims);
+    }
+
+    @Benchmark
+    public UserPrincipal verifiedTokenCacheHit() {
+        Claims claims = cachedJwtUtils.parseJwtToken(token).orElseThrow();
+        return cachedJwtUtils.createPrincipal(claims);
+    }
+
+    private static AnnotationConfigApplicationContext createContext(long verifiedTokenCacheSize) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "jwt.secret", SECRET,
+                "jwt.expiration", "86400000",
+                "app.security.verified-token-cache-size", String.valueOf(verifiedTokenCacheSize)
+        )));
+        context.register(JwtUtils.class);
+        context.refresh();
+        return context;
+    }
+}
@@ -0,0 +1,68 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.service.MovieSearchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead queries against {@link MovieSearchIndex} over a generated catalog: a short prefix that
+ * matches many terms, a longer one, and a multi-word query. Title words repeat across the catalog,
+ * so each query matches hundreds of movies. Movies are indexed through {@code MovieService}, as in
+ * production; the searches never touch the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MovieSearchBenchmark {
+    private static final String[] WORDS = {
+            "night", "river", "shadow", "empire", "silent", "storm", "last", "golden", "winter", "garden",
+            "city", "dragon", "ocean", "stranger", "iron", "echo", "midnight", "glass", "wild", "kingdom"
+    };
+
+    private static final int DESCRIPTION_VOCABULARY = 20000;
+
+    private static final String[] GENRES = {"Drama", "Action", "Comedy", "Sci-Fi", "Horror", "Romance"};
+
+    @Param({"5000"})
+    public int movies;
+
+    @Param({"mi", "stran", "last kin"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private MovieSearchIndex movieSearchIndex;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start("moviesearch");
+        movieSearchIndex = context.getBean(MovieSearchIndex.class);
+
+        Random random = new Random(42);
+        for (int i = 0; i < movies; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            // Descriptions draw on a larger vocabulary of made-up words, so most of them are rare
+            StringBuilder description = new StringBuilder();
+            for (int word = 0; word < 30; word++) {
+                description.append(Integer.toString(random.nextInt(DESCRIPTION_VOCABULARY), 36)).append("x ");
+            }
+            BenchmarkSupport.createMovie(context, title, GENRES[random.nextInt(GENRES.length)], description.toString());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object typeahead() {
+        return movieSearchIndex.search(query, null, 10);
+    }
+}
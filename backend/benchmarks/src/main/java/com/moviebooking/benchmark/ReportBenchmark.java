@@ -0,0 +1,95 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.dto.ReportResponse;
+import com.moviebooking.service.ReportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin reports over a large reservations table. The reservations are inserted straight into
+ * the table and the showtime aggregates rebuilt once, the same way the startup reconcile does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReportBenchmark {
+    private static final int MOVIES = 20;
+    private static final int SHOWTIMES_PER_MOVIE = 10;
+    private static final int SEATS_PER_SHOWTIME = 100;
+    private static final int USERS = 1000;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"100000", "1000000"})
+    public int reservations;
+
+    private ConfigurableApplicationContext context;
+    private ReportService reportService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start("reports" + reservations);
+        reportService = context.getBean(ReportService.class);
+
+        List<Integer> showtimeIds = new ArrayList<>();
+        for (int m = 0; m < MOVIES; m++) {
+            Integer movieId = BenchmarkSupport.createMovie(context, "Report Feature " + m);
+            for (int s = 0; s < SHOWTIMES_PER_MOVIE; s++) {
+                showtimeIds.add(BenchmarkSupport.createShowtime(context, movieId, s + 1, SEATS_PER_SHOWTIME));
+            }
+        }
+        int[] userIds = BenchmarkSupport.createUsers(context, USERS);
+
+        insertReservations(context.getBean(JdbcTemplate.class), showtimeIds, userIds);
+        reportService.rebuildAggregates();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReportResponse generateReports() {
+        return reportService.generateReports();
+    }
+
+    @Benchmark
+    public long rebuildAggregates() {
+        return reportService.rebuildAggregates();
+    }
+
+    private void insertReservations(JdbcTemplate jdbcTemplate, List<Integer> showtimeIds, int[] userIds) {
+        String sql = "INSERT INTO reservations (user_id, showtime_id, reservation_date, total_price, is_cancelled) " +
+                     "VALUES (?, ?, ?, ?, ?)";
+        Timestamp reservationDate = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < reservations; i++) {
+            batch.add(new Object[]{
+                    userIds[i % userIds.length],
+                    showtimeIds.get(i % showtimeIds.size()),
+                    reservationDate,
+                    250.0 * (1 + i % 4),
+                    // Roughly one in ten reservations is cancelled
+                    i % 10 == 0
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.dto.ReservationRequest;
+import com.moviebooking.dto.ReservationResponse;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.service.ReservationService;
+import com.moviebooking.service.SeatLayout;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReservationService#createReservation} with many threads competing for the same seats.
+ * Every thread books a pair of adjacent seats inside a small hot section of one showtime and
+ * cancels it again, so most attempts either win a pair or fail fast on a conflict.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ReservationBenchmark {
+    private static final int TOTAL_SEATS = 400;
+
+    // Seats the threads fight over; smaller means more conflicts
+    @Param({"16", "128"})
+    public int hotSeats;
+
+    private ConfigurableApplicationContext context;
+    private ReservationService reservationService;
+    private Integer showtimeId;
+    private SeatLayout layout;
+    private int[] userIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start("reservations");
+        reservationService = context.getBean(ReservationService.class);
+
+        Integer movieId = BenchmarkSupport.createMovie(context, "Contended Premiere");
+        showtimeId = BenchmarkSupport.createShowtime(context, movieId, 1, TOTAL_SEATS);
+        layout = SeatLayout.forTotalSeats(TOTAL_SEATS);
+        userIds = BenchmarkSupport.createUsers(context, 64);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void bookAndCancel(Blackhole blackhole) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer userId = userIds[random.nextInt(userIds.length)];
+        int first = random.nextInt(hotSeats - 1);
+
+        ReservationRequest request = new ReservationRequest();
+        request.setShowtimeId(showtimeId);
+        request.setSeatNumbers(List.of(layout.seatNumberAt(first), layout.seatNumberAt(first + 1)));
+
+        try {
+            ReservationResponse reservation = reservationService.createReservation(userId, request);
+            blackhole.consume(reservationService.cancelReservation(reservation.getId(), userId));
+        } catch (BadRequestException e) {
+            // Lost the race for one of the seats
+            blackhole.consume(e);
+        }
+    }
+}
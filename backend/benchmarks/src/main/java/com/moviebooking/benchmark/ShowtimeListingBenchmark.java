@@ -0,0 +1,91 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.dto.ReservationRequest;
+import com.moviebooking.dto.SeatResponse;
+import com.moviebooking.dto.ShowtimeResponse;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.service.ReservationService;
+import com.moviebooking.service.SeatLayout;
+import com.moviebooking.service.SeatService;
+import com.moviebooking.service.ShowtimeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Showtime listings and seat maps for auditoriums of increasing size. Availability used to be
+ * counted by loading every seat of every listed showtime, so these should stay flat as the seat
+ * count grows, except for the seat map itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShowtimeListingBenchmark {
+    private static final int SHOWTIMES_PER_MOVIE = 20;
+
+    @Param({"100", "1000", "5000"})
+    public int totalSeats;
+
+    private ConfigurableApplicationContext context;
+    private ShowtimeService showtimeService;
+    private ShowtimeRepository showtimeRepository;
+    private SeatService seatService;
+    private Integer movieId;
+    private Integer showtimeId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkSupport.start("listings" + totalSeats);
+        showtimeService = context.getBean(ShowtimeService.class);
+        showtimeRepository = context.getBean(ShowtimeRepository.class);
+        seatService = context.getBean(SeatService.class);
+
+        movieId = BenchmarkSupport.createMovie(context, "Listing Feature");
+        for (int i = 0; i < SHOWTIMES_PER_MOVIE; i++) {
+            showtimeId = BenchmarkSupport.createShowtime(context, movieId, i + 1, totalSeats);
+        }
+
+        // Book a tenth of the last showtime so availability is not trivially the total
+        SeatLayout layout = SeatLayout.forTotalSeats(totalSeats);
+        List<String> seatNumbers = new ArrayList<>();
+        for (int index = 0; index < totalSeats; index += 10) {
+            seatNumbers.add(layout.seatNumberAt(index));
+        }
+        ReservationRequest request = new ReservationRequest();
+        request.setShowtimeId(showtimeId);
+        request.setSeatNumbers(seatNumbers);
+        int[] userIds = BenchmarkSupport.createUsers(context, 1);
+        context.getBean(ReservationService.class).createReservation(userIds[0], request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ShowtimeResponse showtimeById() {
+        return showtimeService.getShowtimeById(showtimeId);
+    }
+
+    @Benchmark
+    public List<ShowtimeResponse> showtimesByMovieCached() {
+        return showtimeService.getShowtimesByMovieId(movieId);
+    }
+
+    @Benchmark
+    public List<ShowtimeResponse> showtimesByMovieUncached() {
+        return showtimeRepository.findResponsesByMovieId(movieId);
+    }
+
+    @Benchmark
+    public List<SeatResponse> seatMap() {
+        return seatService.getSeatsByShowtimeId(showtimeId);
+    }
+}
@@ -0,0 +1,136 @@
+package com.moviebooking.benchmark;
+
+import com.moviebooking.config.ReadRouting;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.repository.ShowtimeSeatMapRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog reads while a booking rush queues on one showtime's seat map row lock, with requests run
+ * on a Tomcat-sized platform pool or on virtual threads. A dispatcher keeps {@code lockWaiters}
+ * lock-holding requests in flight; on the platform pool they occupy the request threads and the
+ * reads wait behind them, on virtual threads only the connection limit is shared.
+ * <p>
+ * The read is the upcoming showtimes query without the service's cache, so every read needs a
+ * connection slot and a pooled connection just like the rush does.
+ * <p>
+ * Reports throughput and the latency distribution (p99 in the SampleTime results). The
+ * {@code virtual} runs need Java 21 and fail their setup on older JVMs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class ThreadModelBenchmark {
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final int POOL_SIZE = 10;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"400"})
+    public int lockWaiters;
+
+    @Param({"5"})
+    public int lockHoldMillis;
+
+    private ConfigurableApplicationContext context;
+    private ShowtimeRepository showtimeRepository;
+    private ShowtimeSeatMapRepository showtimeSeatMapRepository;
+    private TransactionTemplate transactionTemplate;
+    private Integer showtimeId;
+    private ExecutorService requestExecutor;
+    private Thread dispatcher;
+
+    @Setup
+    public void setUp() {
+        requestExecutor = "virtual".equals(threads) ? newVirtualThreadExecutor() : Executors.newFixedThreadPool(PLATFORM_THREADS);
+
+        context = BenchmarkSupport.start("threads" + threads, Map.of(
+                "spring.datasource.hikari.maximum-pool-size", POOL_SIZE,
+                "app.datasource.max-concurrent-connections", POOL_SIZE,
+                "app.datasource.acquire-timeout-ms", 30000));
+        showtimeRepository = context.getBean(ShowtimeRepository.class);
+        showtimeSeatMapRepository = context.getBean(ShowtimeSeatMapRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Integer movieId = BenchmarkSupport.createMovie(context, "Opening Night");
+        showtimeId = BenchmarkSupport.createShowtime(context, movieId, 1, 500);
+
+        Semaphore inFlight = new Semaphore(lockWaiters);
+        dispatcher = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    inFlight.acquire();
+                    requestExecutor.execute(() -> {
+                        try {
+                            holdSeatMapLock();
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "rush-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.interrupt();
+        dispatcher.join();
+        requestExecutor.shutdownNow();
+        requestExecutor.awaitTermination(30, TimeUnit.SECONDS);
+        context.close();
+    }
+
+    @Benchmark
+    public Object catalogRead() throws ExecutionException, InterruptedException {
+        return requestExecutor.submit(() -> ReadRouting.onPrimary(
+                () -> showtimeRepository.findUpcomingResponses(LocalDateTime.now()))).get();
+    }
+
+    // A booking that holds the showtime's row lock for a while, e.g. waiting on a payment call
+    private void holdSeatMapLock() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                showtimeSeatMapRepository.findByShowtimeIdForUpdate(showtimeId);
+                try {
+                    Thread.sleep(lockHoldMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Lock or connection-slot timeouts are part of the rush
+        }
+    }
+
+    // Looked up reflectively so the benchmarks still compile for Java 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on " + Runtime.version(), e);
+        }
+    }
+}
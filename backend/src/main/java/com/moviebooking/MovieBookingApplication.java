@@ -2,8 +2,10 @@ package com.moviebooking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MovieBookingApplication {
     public static void main(String[] args) {
         SpringApplication.run(MovieBookingApplication.class, args);
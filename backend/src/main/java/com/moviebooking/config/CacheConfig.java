@@ -0,0 +1,70 @@
+package com.moviebooking.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String MOVIES = "movies";
+    public static final String SHOWTIMES_BY_MOVIE = "showtimesByMovie";
+    public static final String UPCOMING_SHOWTIMES = "upcomingShowtimes";
+
+    @Value("${app.cache.movies.ttl-seconds:600}")
+    private long moviesTtlSeconds;
+
+    @Value("${app.cache.movies.max-weight:50000}")
+    private long moviesMaxWeight;
+
+    @Value("${app.cache.showtimes.ttl-seconds:30}")
+    private long showtimesTtlSeconds;
+
+    @Value("${app.cache.showtimes.max-weight:50000}")
+    private long showtimesMaxWeight;
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                buildCache(MOVIES, moviesTtlSeconds, moviesMaxWeight),
+                buildCache(SHOWTIMES_BY_MOVIE, showtimesTtlSeconds, showtimesMaxWeight),
+                buildCache(UPCOMING_SHOWTIMES, showtimesTtlSeconds, showtimesMaxWeight)
+        ));
+        cacheManager.initializeCaches();
+
+        // Evictions issued inside a transaction only apply after it commits
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private CaffeineCache buildCache(String name, long ttlSeconds, long maxWeight) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumWeight(maxWeight)
+                .weigher((Object key, Object value) -> weigh(value))
+                .recordStats()
+                .build());
+    }
+
+    // Weigh entries by the number of items they hold so one large listing counts for more than a small one
+    private static int weigh(Object value) {
+        if (value instanceof Page<?> page) {
+            return page.getNumberOfElements() + 1;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.size() + 1;
+        }
+        return 1;
+    }
+}
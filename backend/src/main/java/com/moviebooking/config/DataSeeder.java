@@ -1,6 +1,7 @@
 package com.moviebooking.config;
 
 import com.moviebooking.service.AuthService;
+import com.moviebooking.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -10,9 +11,21 @@ public class DataSeeder implements CommandLineRunner {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private LegacySeatMigration legacySeatMigration;
+
     @Override
     public void run(String... args) throws Exception {
         authService.seedAdmin();
         System.out.println("Admin user seeded successfully!");
+
+        // Move pre-seat-map databases over before anything reads seat state
+        legacySeatMigration.migrate();
+
+        // Bring the report aggregates in line with the reservations table
+        reportService.rebuildAggregates();
     }
 }
@@ -0,0 +1,59 @@
+package com.moviebooking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a {@link ConcurrencyLimitingDataSource} in front of the application's data source. With
+ * platform threads the request pool already bounds database use, so the limit is opt-in; with virtual
+ * threads every request can reach the pool at once, so it defaults to the pool size. With a read
+ * replica configured, the primary and replica pools are limited separately.
+ */
+@Component
+public class DataSourceConcurrencyConfig implements BeanPostProcessor, EnvironmentAware {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConcurrencyConfig.class);
+
+    @Value("${app.datasource.max-concurrent-connections:0}")
+    private int maxConcurrentConnections;
+
+    @Value("${app.datasource.acquire-timeout-ms:5000}")
+    private long acquireTimeoutMs;
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        // Only limit the pools themselves, not proxies or routers in front of them
+        if (!(bean instanceof DataSource dataSource)
+                || bean instanceof DelegatingDataSource || bean instanceof AbstractRoutingDataSource) {
+            return bean;
+        }
+
+        int limit = maxConcurrentConnections;
+        if (limit <= 0 && Threading.VIRTUAL.isActive(environment)) {
+            limit = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        }
+        if (limit <= 0) {
+            return bean;
+        }
+
+        logger.info("Limiting data source '{}' to {} concurrent connections", beanName, limit);
+        return new ConcurrencyLimitingDataSource(dataSource, limit, acquireTimeoutMs);
+    }
+}
@@ -0,0 +1,121 @@
+package com.moviebooking.config;
+
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.entity.ShowtimeSeatMap;
+import com.moviebooking.repository.ReservationRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.repository.ShowtimeSeatMapRepository;
+import com.moviebooking.service.SeatBits;
+import com.moviebooking.service.SeatLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves databases created before seat maps onto them: copies the seat numbers of each reservation
+ * out of the old seats / reservation_seats tables and builds a seat map for every showtime that lacks one.
+ * The old tables are only emptied when {@code app.migration.clear-legacy-seats} is set; until then their
+ * foreign keys block deleting the showtimes they reference. Stops startup rather than build a seat map
+ * that leaves a booked seat out. Safe to run on every startup.
+ */
+@Component
+public class LegacySeatMigration {
+    private static final Logger logger = LoggerFactory.getLogger(LegacySeatMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private ShowtimeSeatMapRepository showtimeSeatMapRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Value("${app.migration.clear-legacy-seats:false}")
+    private boolean clearLegacySeats;
+
+    @Transactional
+    public void migrate() {
+        if (tableExists("seats")) {
+            if (tableExists("reservation_seats")) {
+                int copied = jdbcTemplate.update(
+                        "INSERT INTO reservation_seat_numbers (reservation_id, seat_number) " +
+                        "SELECT rs.reservation_id, s.seat_number FROM reservation_seats rs JOIN seats s ON s.id = rs.seat_id " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM reservation_seat_numbers n WHERE n.reservation_id = rs.reservation_id)");
+                if (copied > 0) {
+                    logger.info("Copied {} reserved seat numbers from reservation_seats", copied);
+                }
+            }
+            if (clearLegacySeats) {
+                clearLegacyTables();
+            } else if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM seats)", Boolean.class))) {
+                logger.warn("Legacy seat rows remain and will block deleting their showtimes; " +
+                        "set app.migration.clear-legacy-seats=true to remove them");
+            }
+        }
+
+        List<ShowtimeSeatMap> seatMaps = new ArrayList<>();
+        for (Showtime showtime : showtimeRepository.findWithoutSeatMap()) {
+            SeatLayout layout = SeatLayout.forShowtime(showtime);
+            byte[] bookedBits = SeatBits.empty(layout.getTotalSeats());
+            List<String> unmapped = new ArrayList<>();
+            for (String seatNumber : reservationRepository.findBookedSeatNumbersByShowtimeId(showtime.getId())) {
+                int index = layout.indexOf(seatNumber);
+                if (index >= 0) {
+                    SeatBits.set(bookedBits, index);
+                } else {
+                    unmapped.add(seatNumber);
+                }
+            }
+            if (!unmapped.isEmpty()) {
+                // Left out, these seats would be sold a second time
+                throw new IllegalStateException("Showtime " + showtime.getId() + " has booked seats outside its "
+                        + layout.getRows() + "x" + layout.getSeatsPerRow() + " seat grid: " + unmapped);
+            }
+            seatMaps.add(new ShowtimeSeatMap(null, showtime, bookedBits, null));
+        }
+
+        if (!seatMaps.isEmpty()) {
+            showtimeSeatMapRepository.saveAll(seatMaps);
+            logger.info("Built seat maps for {} showtimes", seatMaps.size());
+        }
+    }
+
+    private void clearLegacyTables() {
+        if (tableExists("reservation_seats")) {
+            jdbcTemplate.update("DELETE FROM reservation_seats");
+        }
+        int removed = jdbcTemplate.update("DELETE FROM seats");
+        if (removed > 0) {
+            logger.info("Removed {} legacy seat rows", removed);
+        }
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{table, table.toUpperCase()}) {
+                try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+}
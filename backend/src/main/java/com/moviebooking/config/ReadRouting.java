@@ -0,0 +1,33 @@
+package com.moviebooking.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps read-only work on the primary when a read replica is configured, for reads whose result
+ * outlives the request (in-memory seat state, cached listings) and so must not come from a replica
+ * that is behind. Has to wrap the first query of the transaction, since that picks its connection.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_REQUIRED.remove();
+            } else {
+                PRIMARY_REQUIRED.set(previous);
+            }
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.moviebooking.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Measures how far the replica is behind by stamping a heartbeat row on the primary and reading it
+ * back from the replica, accurate to about one check interval. The replica counts as usable while
+ * its lag is within the tolerance; until the first check, and whenever it cannot be read, it is not.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+
+    private volatile long lagMillis = Long.MAX_VALUE;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagSeconds, long checkIntervalMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagSeconds * 1000;
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-ms:1000}")
+    public void check() {
+        long now = System.currentTimeMillis();
+        long lag;
+        try {
+            List<Long> beats = replica.queryForList("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            // The beat after the one seen may just not be due yet, so one interval of lag is free
+            lag = beats.isEmpty() ? Long.MAX_VALUE : Math.max(0, now - beats.get(0) - checkIntervalMillis);
+        } catch (DataAccessException e) {
+            logger.debug("Could not read the replica heartbeat: {}", e.getMessage());
+            lag = Long.MAX_VALUE;
+        }
+
+        try {
+            if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now) == 0) {
+                primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", now);
+            }
+        } catch (DuplicateKeyException e) {
+            // Another instance wrote the first beat
+        } catch (DataAccessException e) {
+            logger.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+
+        boolean nowUsable = lag <= maxLagMillis;
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                logger.info("Read replica is within {} ms of the primary, routing read-only transactions to it", maxLagMillis);
+            } else {
+                logger.warn("Read replica is behind by more than {} ms or unreachable, reading from the primary", maxLagMillis);
+            }
+        }
+        lagMillis = lag;
+        usable = nowUsable;
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    // NaN while the lag is unknown
+    public double getLagSeconds() {
+        long lag = lagMillis;
+        return lag == Long.MAX_VALUE ? Double.NaN : lag / 1000.0;
+    }
+}
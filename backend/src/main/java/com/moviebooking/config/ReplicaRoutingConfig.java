@@ -0,0 +1,73 @@
+package com.moviebooking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary and replica connection pools behind a {@link ReplicaRoutingDataSource}, set up when
+ * {@code app.datasource.replica.jdbc-url} is configured. The primary pool takes the usual
+ * {@code spring.datasource} settings, the replica pool any Hikari setting under
+ * {@code app.datasource.replica}. Without a replica the single auto-configured pool is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.jdbc-url")
+public class ReplicaRoutingConfig {
+    @Value("${app.datasource.routing.max-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    @Value("${app.datasource.routing.lag-check-ms:1000}")
+    private long lagCheckMs;
+
+    @Value("${app.datasource.routing.sticky-primary-seconds:10}")
+    private long stickyPrimarySeconds;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, maxLagSeconds, lagCheckMs);
+        Gauge.builder("datasource.replica.lag", monitor, ReplicaLagMonitor::getLagSeconds)
+                .description("How far the read replica is behind the primary")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, replica, replicaLagMonitor::isUsable, stickyPrimarySeconds));
+    }
+}
@@ -0,0 +1,87 @@
+package com.moviebooking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moviebooking.security.UserPrincipal;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Reads still use
+ * the primary while the replica is lagging, when the caller asked for it through {@link ReadRouting},
+ * and for a short while after the current user's own writes so they always see them.
+ * <p>
+ * Needs a {@code LazyConnectionDataSourceProxy} in front: the transaction's read-only flag is only
+ * known once it has begun, after the connection would normally have been fetched.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Target { PRIMARY, REPLICA }
+
+    private final BooleanSupplier replicaUsable;
+
+    // Users who wrote recently, with the time their reads may go back to the replica
+    private final Cache<Integer, Long> stickyUntil;
+    private final long stickyMillis;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, BooleanSupplier replicaUsable,
+                                    long stickyPrimarySeconds) {
+        this.replicaUsable = replicaUsable;
+        this.stickyMillis = stickyPrimarySeconds * 1000;
+        this.stickyUntil = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, stickyPrimarySeconds)))
+                .maximumSize(100000)
+                .build();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Integer userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                stickAfterCommit(userId);
+            }
+            return Target.PRIMARY;
+        }
+
+        if (ReadRouting.isPrimaryRequired() || isSticky(userId) || !replicaUsable.getAsBoolean()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    private void stickAfterCommit(Integer userId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stickyUntil.put(userId, System.currentTimeMillis() + stickyMillis);
+            }
+        });
+    }
+
+    private boolean isSticky(Integer userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.getIfPresent(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private static Integer currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getId();
+        }
+        return null;
+    }
+}
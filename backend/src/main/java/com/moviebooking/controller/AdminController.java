@@ -1,15 +1,27 @@
 package com.moviebooking.controller;
 
 import com.moviebooking.dto.ApiResponse;
+import com.moviebooking.dto.CacheStatsResponse;
 import com.moviebooking.dto.ReportResponse;
+import com.moviebooking.dto.WaitingRoomResponse;
+import com.moviebooking.security.TokenRevocationService;
+import com.moviebooking.service.CacheStatsService;
 import com.moviebooking.service.ReportService;
+import com.moviebooking.service.ReservationExportService;
+import com.moviebooking.service.WaitingRoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -20,10 +32,80 @@ public class AdminController {
     @Autowired
     ReportService reportService;
 
+    @Autowired
+    CacheStatsService cacheStatsService;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    ReservationExportService reservationExportService;
+
+    @Autowired
+    WaitingRoomService waitingRoomService;
+
     @GetMapping("/reports")
     @Operation(summary = "Generate reports", description = "Get total reservations, revenue per movie, and seat occupancy per showtime", security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<ApiResponse> generateReports() {
         ReportResponse reports = reportService.generateReports();
         return ResponseEntity.ok(ApiResponse.success("Reports generated successfully", reports));
     }
+
+    @PostMapping("/reports/rebuild")
+    @Operation(summary = "Rebuild report aggregates", description = "Recompute the running report aggregates from the reservations table", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> rebuildReports() {
+        long drifted = reportService.rebuildAggregates();
+        return ResponseEntity.ok(ApiResponse.success("Report aggregates rebuilt successfully", drifted));
+    }
+
+    @GetMapping("/reservations/export")
+    @Operation(summary = "Export reservations", description = "Stream every reservation, cancelled ones included, as NDJSON or CSV, optionally filtered by booking date range [from, to) and movie", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer movieId) {
+        ReservationExportService.Format exportFormat = ReservationExportService.Format.from(format);
+        StreamingResponseBody body = out -> reservationExportService.export(exportFormat, from, to, movieId, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/cache-stats")
+    @Operation(summary = "Get cache statistics", description = "Hit, miss and eviction counts for the catalog and showtime caches", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> getCacheStats() {
+        List<CacheStatsResponse> stats = cacheStatsService.getCacheStats();
+        return ResponseEntity.ok(ApiResponse.success("Cache statistics retrieved successfully", stats));
+    }
+
+    @PostMapping("/users/{userId}/revoke-tokens")
+    @Operation(summary = "Revoke user tokens", description = "Force-logout a user by invalidating every token issued to them", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> revokeTokens(@PathVariable Integer userId) {
+        tokenRevocationService.revokeAllTokens(userId);
+        return ResponseEntity.ok(ApiResponse.success("User tokens revoked successfully"));
+    }
+
+    @PutMapping("/showtimes/{showtimeId}/waiting-room")
+    @Operation(summary = "Open waiting room", description = "Require queue tickets to book a showtime and admit them at the given rate per second; on an open room this only changes the rate", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> openWaitingRoom(@PathVariable Integer showtimeId,
+                                                       @RequestParam(required = false) Double admitPerSecond) {
+        WaitingRoomResponse waitingRoom = waitingRoomService.open(showtimeId, admitPerSecond);
+        return ResponseEntity.ok(ApiResponse.success("Waiting room opened successfully", waitingRoom));
+    }
+
+    @GetMapping("/showtimes/{showtimeId}/waiting-room")
+    @Operation(summary = "Get waiting room", description = "Admission rate, tickets issued and admitted, and queue depth of a showtime's waiting room", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> getWaitingRoom(@PathVariable Integer showtimeId) {
+        WaitingRoomResponse waitingRoom = waitingRoomService.getWaitingRoom(showtimeId);
+        return ResponseEntity.ok(ApiResponse.success("Waiting room retrieved successfully", waitingRoom));
+    }
+
+    @DeleteMapping("/showtimes/{showtimeId}/waiting-room")
+    @Operation(summary = "Close waiting room", description = "Let everyone book the showtime directly again", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> closeWaitingRoom(@PathVariable Integer showtimeId) {
+        waitingRoomService.close(showtimeId);
+        return ResponseEntity.ok(ApiResponse.success("Waiting room closed successfully"));
+    }
 }
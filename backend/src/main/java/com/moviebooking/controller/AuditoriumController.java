@@ -0,0 +1,55 @@
+package com.moviebooking.controller;
+
+import com.moviebooking.dto.ApiResponse;
+import com.moviebooking.dto.AuditoriumRequest;
+import com.moviebooking.dto.AuditoriumResponse;
+import com.moviebooking.service.AuditoriumService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/auditoriums")
+@Tag(name = "Auditoriums", description = "Auditorium seat layout APIs")
+public class AuditoriumController {
+    @Autowired
+    AuditoriumService auditoriumService;
+
+    @GetMapping
+    @Operation(summary = "Get all auditoriums", description = "Retrieve all auditoriums and their seat grids")
+    public ResponseEntity<ApiResponse> getAllAuditoriums() {
+        List<AuditoriumResponse> auditoriums = auditoriumService.getAllAuditoriums();
+        return ResponseEntity.ok(ApiResponse.success("Auditoriums retrieved successfully", auditoriums));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get auditorium by ID", description = "Retrieve a specific auditorium by its ID")
+    public ResponseEntity<ApiResponse> getAuditoriumById(@PathVariable Integer id) {
+        AuditoriumResponse auditorium = auditoriumService.getAuditoriumById(id);
+        return ResponseEntity.ok(ApiResponse.success("Auditorium retrieved successfully", auditorium));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create auditorium", description = "Create an auditorium with a rows x seats-per-row grid (Admin only)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> createAuditorium(@Valid @RequestBody AuditoriumRequest request) {
+        AuditoriumResponse auditorium = auditoriumService.createAuditorium(request);
+        return ResponseEntity.ok(ApiResponse.success("Auditorium created successfully", auditorium));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Delete auditorium", description = "Delete an auditorium that no showtime uses (Admin only)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> deleteAuditorium(@PathVariable Integer id) {
+        auditoriumService.deleteAuditorium(id);
+        return ResponseEntity.ok(ApiResponse.success("Auditorium deleted successfully"));
+    }
+}
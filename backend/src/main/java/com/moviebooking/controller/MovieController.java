@@ -3,6 +3,7 @@ package com.moviebooking.controller;
 import com.moviebooking.dto.ApiResponse;
 import com.moviebooking.dto.MovieRequest;
 import com.moviebooking.dto.MovieResponse;
+import com.moviebooking.dto.MovieSearchResponse;
 import com.moviebooking.service.MovieService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -45,6 +46,16 @@ public class MovieController {
         return ResponseEntity.ok(ApiResponse.success("Movies retrieved successfully", movies));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search movies", description = "Ranked search over titles, genres and descriptions, matching each word as a prefix, with per-genre counts")
+    public ResponseEntity<ApiResponse> searchMovies(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String genre,
+            @RequestParam(defaultValue = "20") int limit) {
+        MovieSearchResponse result = movieService.searchMovies(q, genre, limit);
+        return ResponseEntity.ok(ApiResponse.success("Movies retrieved successfully", result));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get movie by ID", description = "Retrieve a specific movie by its ID")
     public ResponseEntity<ApiResponse> getMovieById(@PathVariable Integer id) {
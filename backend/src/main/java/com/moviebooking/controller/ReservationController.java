@@ -1,20 +1,30 @@
 package com.moviebooking.controller;
 
 import com.moviebooking.dto.ApiResponse;
+import com.moviebooking.dto.BestAvailableRequest;
+import com.moviebooking.dto.CursorPage;
 import com.moviebooking.dto.ReservationRequest;
 import com.moviebooking.dto.ReservationResponse;
-import com.moviebooking.security.JwtUtils;
+import com.moviebooking.dto.SeatHoldResponse;
+import com.moviebooking.exception.UnauthorizedException;
+import com.moviebooking.security.UserPrincipal;
+import com.moviebooking.service.IdempotencyService;
 import com.moviebooking.service.ReservationService;
+import com.moviebooking.service.SeatHoldService;
+import com.moviebooking.service.WaitingRoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -26,62 +36,119 @@ public class ReservationController {
     ReservationService reservationService;
 
     @Autowired
-    JwtUtils jwtUtils;
+    SeatHoldService seatHoldService;
 
-    private Integer getUserIdFromRequest(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.substring(7);
-            return jwtUtils.getUserIdFromJwtToken(token);
+    @Autowired
+    IdempotencyService idempotencyService;
+
+    @Autowired
+    WaitingRoomService waitingRoomService;
+
+    // The JWT filter already verified the token and put its principal in the security context
+    private Integer getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getId();
         }
-        throw new RuntimeException("Unauthorized");
+        throw new UnauthorizedException("Unauthorized");
     }
 
     @PostMapping
-    @Operation(summary = "Create reservation", description = "Create a new reservation with multiple seats (transactional)", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<ApiResponse> createReservation(@Valid @RequestBody ReservationRequest request, HttpServletRequest httpRequest) {
-        Integer userId = getUserIdFromRequest(httpRequest);
-        ReservationResponse reservation = reservationService.createReservation(userId, request);
+    @Operation(summary = "Create reservation", description = "Create a new reservation with multiple seats (transactional). Retries sending the same Idempotency-Key get the original reservation back instead of booking again. Showtimes with a waiting room need an admitted X-Queue-Token", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> createReservation(@Valid @RequestBody ReservationRequest request,
+                                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                         @RequestHeader(value = WaitingRoomService.TOKEN_HEADER, required = false) String queueToken) {
+        Integer userId = getCurrentUserId();
+        // Runs outside the booking transaction, so a stored result is always a committed one; a retry that
+        // gets it back needs no admission, which the original booking has already used up
+        ReservationResponse reservation = idempotencyService.execute(userId, idempotencyKey, request,
+                () -> waitingRoomService.admit(request.getShowtimeId(), userId, queueToken,
+                        () -> reservationService.createReservation(userId, request)));
+        return ResponseEntity.ok(ApiResponse.success("Reservation created successfully", reservation));
+    }
+
+    @PostMapping("/best-available")
+    @Operation(summary = "Book best available seats", description = "Book the given number of adjacent seats closest to the centre of the hall, chosen and booked in one step. Showtimes with a waiting room need an admitted X-Queue-Token", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> createBestAvailableReservation(@Valid @RequestBody BestAvailableRequest request,
+                                                                      @RequestHeader(value = WaitingRoomService.TOKEN_HEADER, required = false) String queueToken) {
+        Integer userId = getCurrentUserId();
+        ReservationResponse reservation = waitingRoomService.admit(request.getShowtimeId(), userId, queueToken,
+                () -> reservationService.createBestAvailableReservation(userId, request));
         return ResponseEntity.ok(ApiResponse.success("Reservation created successfully", reservation));
     }
 
+    @PostMapping("/holds")
+    @Operation(summary = "Hold seats", description = "Temporarily hold seats before checkout; the hold expires unless confirmed. Showtimes with a waiting room need an admitted X-Queue-Token", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> holdSeats(@Valid @RequestBody ReservationRequest request,
+                                                 @RequestHeader(value = WaitingRoomService.TOKEN_HEADER, required = false) String queueToken) {
+        Integer userId = getCurrentUserId();
+        SeatHoldResponse hold = waitingRoomService.admit(request.getShowtimeId(), userId, queueToken,
+                () -> seatHoldService.holdSeats(userId, request));
+        return ResponseEntity.ok(ApiResponse.success("Seats held successfully", hold));
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    @Operation(summary = "Confirm hold", description = "Turn an active seat hold into a reservation", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> confirmHold(@PathVariable String holdId) {
+        Integer userId = getCurrentUserId();
+        ReservationResponse reservation = reservationService.confirmHold(holdId, userId);
+        return ResponseEntity.ok(ApiResponse.success("Reservation created successfully", reservation));
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    @Operation(summary = "Release hold", description = "Release an active seat hold without booking", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> releaseHold(@PathVariable String holdId) {
+        Integer userId = getCurrentUserId();
+        seatHoldService.releaseHold(holdId, userId);
+        return ResponseEntity.ok(ApiResponse.success("Hold released successfully"));
+    }
+
     @GetMapping("/my-reservations")
-    @Operation(summary = "Get user reservations", description = "Retrieve all reservations for the authenticated user", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<ApiResponse> getUserReservations(HttpServletRequest httpRequest) {
-        Integer userId = getUserIdFromRequest(httpRequest);
-        List<ReservationResponse> reservations = reservationService.getUserReservations(userId);
+    @Operation(summary = "Get user reservations", description = "Page through the authenticated user's reservations, newest first; pass nextCursor back as cursor for the next page", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> getUserReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        Integer userId = getCurrentUserId();
+        CursorPage<ReservationResponse> reservations = reservationService.getUserReservations(userId, cursor, limit);
         return ResponseEntity.ok(ApiResponse.success("Reservations retrieved successfully", reservations));
     }
 
     @GetMapping("/my-upcoming-reservations")
     @Operation(summary = "Get user upcoming reservations", description = "Retrieve all upcoming reservations for the authenticated user", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<ApiResponse> getUserUpcomingReservations(HttpServletRequest httpRequest) {
-        Integer userId = getUserIdFromRequest(httpRequest);
+    public ResponseEntity<ApiResponse> getUserUpcomingReservations() {
+        Integer userId = getCurrentUserId();
         List<ReservationResponse> reservations = reservationService.getUserUpcomingReservations(userId);
         return ResponseEntity.ok(ApiResponse.success("Upcoming reservations retrieved successfully", reservations));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get reservation by ID", description = "Retrieve a specific reservation by its ID", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<ApiResponse> getReservationById(@PathVariable Integer id, HttpServletRequest httpRequest) {
-        Integer userId = getUserIdFromRequest(httpRequest);
+    public ResponseEntity<ApiResponse> getReservationById(@PathVariable Integer id) {
+        Integer userId = getCurrentUserId();
         ReservationResponse reservation = reservationService.getReservationById(id, userId);
         return ResponseEntity.ok(ApiResponse.success("Reservation retrieved successfully", reservation));
     }
 
     @PutMapping("/{id}/cancel")
     @Operation(summary = "Cancel reservation", description = "Cancel an upcoming reservation (only owner can cancel)", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<ApiResponse> cancelReservation(@PathVariable Integer id, HttpServletRequest httpRequest) {
-        Integer userId = getUserIdFromRequest(httpRequest);
+    public ResponseEntity<ApiResponse> cancelReservation(@PathVariable Integer id) {
+        Integer userId = getCurrentUserId();
         ReservationResponse reservation = reservationService.cancelReservation(id, userId);
         return ResponseEntity.ok(ApiResponse.success("Reservation cancelled successfully", reservation));
     }
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all reservations", description = "Retrieve all active reservations (Admin only)", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<ApiResponse> getAllReservations() {
-        List<ReservationResponse> reservations = reservationService.getAllReservations();
+    @Operation(summary = "Get all reservations", description = "Page through active reservations, newest first, optionally filtered by showtime, movie and booking date range [from, to) (Admin only)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> getAllReservations(
+            @RequestParam(required = false) Integer showtimeId,
+            @RequestParam(required = false) Integer movieId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        CursorPage<ReservationResponse> reservations = reservationService.getAllReservations(
+                showtimeId, movieId, from, to, cursor, limit);
         return ResponseEntity.ok(ApiResponse.success("Reservations retrieved successfully", reservations));
     }
 }
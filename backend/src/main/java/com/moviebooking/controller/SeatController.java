@@ -1,13 +1,27 @@
 package com.moviebooking.controller;
 
 import com.moviebooking.dto.ApiResponse;
+import com.moviebooking.dto.SeatChangesResponse;
 import com.moviebooking.dto.SeatResponse;
+import com.moviebooking.dto.StreamTicketResponse;
+import com.moviebooking.exception.UnauthorizedException;
+import com.moviebooking.security.StreamTicketService;
+import com.moviebooking.security.UserPrincipal;
+import com.moviebooking.service.PackedSeatMap;
+import com.moviebooking.service.SeatMapBroadcaster;
 import com.moviebooking.service.SeatService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -19,10 +33,69 @@ public class SeatController {
     @Autowired
     SeatService seatService;
 
-    @GetMapping("/showtime/{showtimeId}")
-    @Operation(summary = "Get seats by showtime ID", description = "Retrieve all seats for a specific showtime with booking status")
-    public ResponseEntity<ApiResponse> getSeatsByShowtimeId(@PathVariable Integer showtimeId) {
+    @Autowired
+    SeatMapBroadcaster seatMapBroadcaster;
+
+    @Autowired
+    StreamTicketService streamTicketService;
+
+    @GetMapping(value = "/showtime/{showtimeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get seats by showtime ID", description = "Retrieve all seats for a specific showtime with booking status. The ETag carries the seat map version; send it back as If-None-Match to get 304 while nothing changed")
+    public ResponseEntity<ApiResponse> getSeatsByShowtimeId(@PathVariable Integer showtimeId, WebRequest webRequest) {
+        String etag = "W/\"" + seatService.getSeatMapVersion(showtimeId) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
         List<SeatResponse> seats = seatService.getSeatsByShowtimeId(showtimeId);
-        return ResponseEntity.ok(ApiResponse.success("Seats retrieved successfully", seats));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(ApiResponse.success("Seats retrieved successfully", seats));
+    }
+
+    @GetMapping(value = "/showtime/{showtimeId}", produces = PackedSeatMap.MEDIA_TYPE)
+    @Operation(summary = "Get packed seat map by showtime ID", description = "Binary seat map: the row/column layout and version once, then the booked seats as a bitset. Served when the client accepts " + PackedSeatMap.MEDIA_TYPE + "; supports If-None-Match like the JSON form")
+    public ResponseEntity<byte[]> getPackedSeatsByShowtimeId(@PathVariable Integer showtimeId, WebRequest webRequest) {
+        if (webRequest.checkNotModified(packedETag(seatService.getSeatMapVersion(showtimeId)))) {
+            return null;
+        }
+
+        PackedSeatMap packed = seatService.getPackedSeatMap(showtimeId);
+        return ResponseEntity.ok()
+                .eTag(packedETag(packed.getVersion()))
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(MediaType.parseMediaType(PackedSeatMap.MEDIA_TYPE))
+                .body(packed.getBytes());
+    }
+
+    @GetMapping("/showtime/{showtimeId}/changes")
+    @Operation(summary = "Get seat changes since a version", description = "Seats that flipped since the given seat map version (or ETag), with their current state. Falls back to the whole seat map, flagged as full, when the version is too old")
+    public ResponseEntity<ApiResponse> getSeatChanges(@PathVariable Integer showtimeId, @RequestParam String since) {
+        SeatChangesResponse changes = seatService.getSeatChangesSince(showtimeId, since);
+        return ResponseEntity.ok(ApiResponse.success("Seat changes retrieved successfully", changes));
+    }
+
+    @GetMapping(value = "/showtime/{showtimeId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream seat changes", description = "Server-Sent Events: a 'snapshot' of the seat map, then 'booked' and 'released' events as seats change, each with the seat map version it produced. Browsers' EventSource, which cannot send the JWT, passes a ticket from the stream-ticket endpoint as the ticket query parameter")
+    public SseEmitter streamSeatsByShowtimeId(@PathVariable Integer showtimeId) {
+        return seatMapBroadcaster.subscribe(showtimeId);
+    }
+
+    @PostMapping("/showtime/{showtimeId}/stream-ticket")
+    @Operation(summary = "Get a seat stream ticket", description = "Single-use ticket that opens this showtime's seat stream once, within a few seconds, without putting the JWT in the URL", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> issueStreamTicket(@PathVariable Integer showtimeId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal userPrincipal)) {
+            throw new UnauthorizedException("Unauthorized");
+        }
+        StreamTicketResponse ticket = new StreamTicketResponse(
+                streamTicketService.issue(userPrincipal, showtimeId), streamTicketService.getTicketSeconds());
+        return ResponseEntity.ok(ApiResponse.success("Stream ticket issued", ticket));
+    }
+
+    // Each representation needs its own entity tag
+    private static String packedETag(String version) {
+        return "W/\"" + version + "-packed\"";
     }
 }
@@ -1,6 +1,7 @@
 package com.moviebooking.controller;
 
 import com.moviebooking.dto.ApiResponse;
+import com.moviebooking.dto.BulkShowtimeRequest;
 import com.moviebooking.dto.ShowtimeRequest;
 import com.moviebooking.dto.ShowtimeResponse;
 import com.moviebooking.service.ShowtimeService;
@@ -63,6 +64,14 @@ public class ShowtimeController {
         return ResponseEntity.ok(ApiResponse.success("Showtime created successfully", showtime));
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Create showtimes in bulk", description = "Create several showtimes and their seats in one operation (Admin only)", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> createShowtimes(@Valid @RequestBody BulkShowtimeRequest request) {
+        List<ShowtimeResponse> showtimes = showtimeService.createShowtimes(request.getShowtimes());
+        return ResponseEntity.ok(ApiResponse.success("Showtimes created successfully", showtimes));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update showtime", description = "Update an existing showtime (Admin only)", security = @SecurityRequirement(name = "bearerAuth"))
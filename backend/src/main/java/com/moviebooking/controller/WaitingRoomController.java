@@ -0,0 +1,47 @@
+package com.moviebooking.controller;
+
+import com.moviebooking.dto.ApiResponse;
+import com.moviebooking.dto.QueueTicketResponse;
+import com.moviebooking.exception.UnauthorizedException;
+import com.moviebooking.security.UserPrincipal;
+import com.moviebooking.service.WaitingRoomService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/waiting-room")
+@Tag(name = "Waiting Room", description = "Queue APIs for showtimes with a waiting room")
+public class WaitingRoomController {
+    @Autowired
+    WaitingRoomService waitingRoomService;
+
+    private Integer getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getId();
+        }
+        throw new UnauthorizedException("Unauthorized");
+    }
+
+    @PostMapping("/showtime/{showtimeId}")
+    @Operation(summary = "Join queue", description = "Get a queue ticket for a showtime with an open waiting room, or your existing one. Send its token in the X-Queue-Token header when booking once admitted. Without a waiting room the ticket is admitted straight away", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> joinQueue(@PathVariable Integer showtimeId) {
+        QueueTicketResponse ticket = waitingRoomService.join(showtimeId, getCurrentUserId());
+        return ResponseEntity.ok(ApiResponse.success("Joined queue successfully", ticket));
+    }
+
+    @GetMapping("/showtime/{showtimeId}")
+    @Operation(summary = "Get queue position", description = "Position and estimated wait of the ticket in the X-Queue-Token header", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse> getQueuePosition(@PathVariable Integer showtimeId,
+                                                        @RequestHeader(WaitingRoomService.TOKEN_HEADER) String token) {
+        QueueTicketResponse ticket = waitingRoomService.getTicket(showtimeId, getCurrentUserId(), token);
+        return ResponseEntity.ok(ApiResponse.success("Queue position retrieved successfully", ticket));
+    }
+}
@@ -0,0 +1,27 @@
+package com.moviebooking.dto;
+
+import com.moviebooking.service.SeatLayout;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class AuditoriumRequest {
+    @NotBlank(message = "Name is required")
+    @Size(max = 100, message = "Name must not exceed 100 characters")
+    private String name;
+
+    // Rows are lettered A-Z
+    @NotNull(message = "Row count is required")
+    @Min(value = 1, message = "Row count must be at least 1")
+    @Max(value = SeatLayout.MAX_ROWS, message = "Row count must not exceed 26")
+    private Integer rowCount;
+
+    @NotNull(message = "Seats per row is required")
+    @Min(value = 1, message = "Seats per row must be at least 1")
+    @Max(value = 100, message = "Seats per row must not exceed 100")
+    private Integer seatsPerRow;
+}
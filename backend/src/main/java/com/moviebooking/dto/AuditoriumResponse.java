@@ -0,0 +1,16 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditoriumResponse {
+    private Integer id;
+    private String name;
+    private Integer rowCount;
+    private Integer seatsPerRow;
+    private Integer totalSeats;
+}
@@ -0,0 +1,19 @@
+package com.moviebooking.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BestAvailableRequest {
+    @NotNull(message = "Showtime ID is required")
+    private Integer showtimeId;
+
+    // A block never spans rows: auditorium rows hold at most 100 seats, rows derived from a large seat
+    // count can run longer
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 100, message = "Quantity must not exceed 100")
+    private Integer quantity;
+}
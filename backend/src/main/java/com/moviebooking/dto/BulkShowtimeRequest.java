@@ -0,0 +1,15 @@
+package com.moviebooking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkShowtimeRequest {
+    @NotEmpty(message = "At least one showtime is required")
+    @Size(max = 500, message = "At most 500 showtimes can be created at once")
+    private List<@Valid ShowtimeRequest> showtimes;
+}
@@ -0,0 +1,20 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieSearchResponse {
+    // Best matches first, at most the requested limit
+    private List<MovieResponse> movies;
+    // Matches in total, after the genre filter
+    private int total;
+    // Matches per genre before the genre filter, most common first
+    private Map<String, Integer> genres;
+}
@@ -0,0 +1,18 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueTicketResponse {
+    // Sent back in the X-Queue-Token header; null when the showtime has no waiting room
+    private String token;
+    private Integer showtimeId;
+    private boolean admitted;
+    // Tickets ahead of this one, 0 once admitted
+    private long position;
+    private long etaSeconds;
+}
@@ -0,0 +1,25 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One row per reserved seat; consecutive rows of the same reservation are merged while exporting
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationExportRow {
+    private Integer reservationId;
+    private Integer userId;
+    private String userName;
+    private Integer showtimeId;
+    private String movieTitle;
+    private LocalDateTime showtimeStart;
+    private LocalDateTime showtimeEnd;
+    private LocalDateTime reservationDate;
+    private Double totalPrice;
+    private Boolean isCancelled;
+    private String seatNumber;
+}
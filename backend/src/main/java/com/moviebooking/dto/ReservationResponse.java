@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -22,4 +23,12 @@ public class ReservationResponse {
     private LocalDateTime reservationDate;
     private Double totalPrice;
     private Boolean isCancelled;
+
+    // Used by the ReservationRepository projections; seat numbers are attached afterwards
+    public ReservationResponse(Integer id, Integer userId, String userName, Integer showtimeId, String movieTitle,
+                               LocalDateTime showtimeStart, LocalDateTime showtimeEnd, LocalDateTime reservationDate,
+                               Double totalPrice, Boolean isCancelled) {
+        this(id, userId, userName, showtimeId, movieTitle, showtimeStart, showtimeEnd, new ArrayList<>(),
+                reservationDate, totalPrice, isCancelled);
+    }
 }
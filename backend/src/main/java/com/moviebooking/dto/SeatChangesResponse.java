@@ -0,0 +1,17 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatChangesResponse {
+    private String version;
+    // True when the given version was too old or unknown and seats holds the whole seat map
+    private Boolean full;
+    private List<SeatResponse> seats;
+}
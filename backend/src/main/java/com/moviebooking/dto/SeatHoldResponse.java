@@ -0,0 +1,18 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldResponse {
+    private String holdId;
+    private Integer showtimeId;
+    private List<String> seatNumbers;
+    private LocalDateTime expiresAt;
+}
@@ -1,6 +1,8 @@
 package com.moviebooking.dto;
 
+import com.moviebooking.service.SeatLayout;
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -20,7 +22,10 @@ public class ShowtimeRequest {
     @Future(message = "End time must be in the future")
     private LocalDateTime endTime;
 
-    @NotNull(message = "Total seats is required")
+    // Ignored when an auditorium is given; its layout decides the seat count
     @Min(value = 1, message = "Total seats must be at least 1")
+    @Max(value = SeatLayout.MAX_SEATS, message = "Total seats must not exceed 65536")
     private Integer totalSeats;
+
+    private Integer auditoriumId;
 }
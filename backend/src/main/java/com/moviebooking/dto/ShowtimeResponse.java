@@ -17,4 +17,6 @@ public class ShowtimeResponse {
     private LocalDateTime endTime;
     private Integer totalSeats;
     private Integer availableSeats;
+    private Integer auditoriumId;
+    private String auditoriumName;
 }
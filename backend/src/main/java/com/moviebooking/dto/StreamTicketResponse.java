@@ -0,0 +1,14 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamTicketResponse {
+    // Passed as the stream's ticket query parameter; good for one connection
+    private String ticket;
+    private long expiresInSeconds;
+}
@@ -0,0 +1,16 @@
+package com.moviebooking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingRoomResponse {
+    private Integer showtimeId;
+    private double admitPerSecond;
+    private long ticketsIssued;
+    private long ticketsAdmitted;
+    private long queueDepth;
+}
@@ -0,0 +1,31 @@
+package com.moviebooking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "auditoriums", indexes = {
+    @Index(name = "idx_auditorium_name", columnList = "name", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Auditorium {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private Integer rowCount;
+
+    @Column(nullable = false)
+    private Integer seatsPerRow;
+
+    @Column(nullable = false)
+    private Integer totalSeats;
+}
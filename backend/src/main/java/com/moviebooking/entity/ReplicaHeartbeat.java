@@ -0,0 +1,24 @@
+package com.moviebooking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row the primary stamps with the current time so the replica's copy shows how far behind
+ * it is. Only used when a read replica is configured.
+ */
+@Entity
+@Table(name = "replica_heartbeat")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplicaHeartbeat {
+    @Id
+    private Integer id;
+
+    // Epoch milliseconds of the last beat
+    @Column(nullable = false)
+    private Long beatAt;
+}
@@ -13,7 +13,8 @@ import java.util.List;
 @Table(name = "reservations", indexes = {
     @Index(name = "idx_user_id", columnList = "user_id"),
     @Index(name = "idx_showtime_id", columnList = "showtime_id"),
-    @Index(name = "idx_reservation_date", columnList = "reservationDate")
+    @Index(name = "idx_reservation_date", columnList = "reservationDate"),
+    @Index(name = "idx_user_reservation_date", columnList = "user_id,reservationDate")
 })
 @Data
 @NoArgsConstructor
@@ -31,13 +32,10 @@ public class Reservation {
     @JoinColumn(name = "showtime_id", nullable = false)
     private Showtime showtime;
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
-    @JoinTable(
-        name = "reservation_seats",
-        joinColumns = @JoinColumn(name = "reservation_id"),
-        inverseJoinColumns = @JoinColumn(name = "seat_id")
-    )
-    private List<Seat> seats = new ArrayList<>();
+    @ElementCollection
+    @CollectionTable(name = "reservation_seat_numbers", joinColumns = @JoinColumn(name = "reservation_id"))
+    @Column(name = "seat_number", nullable = false, length = 10)
+    private List<String> seatNumbers = new ArrayList<>();
 
     @Column(nullable = false)
     private LocalDateTime reservationDate;
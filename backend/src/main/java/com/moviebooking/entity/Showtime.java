@@ -26,6 +26,11 @@ public class Showtime {
     @JoinColumn(name = "movie_id", nullable = false)
     private Movie movie;
 
+    // Optional; without one the seat grid is derived from totalSeats
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "auditorium_id")
+    private Auditorium auditorium;
+
     @Column(nullable = false)
     private LocalDateTime startTime;
 
@@ -35,8 +40,20 @@ public class Showtime {
     @Column(nullable = false)
     private Integer totalSeats;
 
-    @OneToMany(mappedBy = "showtime", cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<Seat> seats = new ArrayList();
+    // Rows of the seat grid derived from totalSeats; null on showtimes created before rows stopped at Z,
+    // which keep the square grid their seats were numbered on
+    private Integer seatRows;
+
+    // Running aggregates maintained by atomic increments in ShowtimeRepository, never written from the entity
+    @Column(nullable = false, updatable = false)
+    private Integer bookedSeats = 0;
+
+    @Column(nullable = false, updatable = false)
+    private Long reservationCount = 0L;
+
+    // Revenue in minor currency units so running sums stay exact
+    @Column(nullable = false, updatable = false)
+    private Long revenueCents = 0L;
 
     @OneToMany(mappedBy = "showtime", cascade = CascadeType.REMOVE)
     private List<Reservation> reservations = new ArrayList<>();
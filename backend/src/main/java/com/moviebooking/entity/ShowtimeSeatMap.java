@@ -0,0 +1,34 @@
+package com.moviebooking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Booked seats of one showtime as a bitset over its seat layout (bit i set when seat i is booked).
+ * Replaces one seats row per seat; the layout itself comes from the auditorium or the seat count.
+ */
+@Entity
+@Table(name = "showtime_seat_maps")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowtimeSeatMap {
+    @Id
+    private Integer showtimeId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "showtime_id")
+    @ToString.Exclude
+    private Showtime showtime;
+
+    // Up to 65536 seats
+    @Column(nullable = false, length = 8192)
+    private byte[] bookedBits;
+
+    @Version
+    private Long version;
+}
@@ -29,6 +29,10 @@ public class User {
     @Column(nullable = false, length = 255)
     private String password;
 
+    // Bumped to invalidate every token issued so far; only changed through UserRepository
+    @Column(nullable = false, updatable = false)
+    private Integer tokenVersion = 0;
+
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "user_roles",
@@ -0,0 +1,8 @@
+package com.moviebooking.exception;
+
+// The requested seats were taken by another booking; still a 400 for clients
+public class SeatUnavailableException extends BadRequestException {
+    public SeatUnavailableException(String message) {
+        super(message);
+    }
+}
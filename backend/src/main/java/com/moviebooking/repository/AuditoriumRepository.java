@@ -0,0 +1,10 @@
+package com.moviebooking.repository;
+
+import com.moviebooking.entity.Auditorium;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AuditoriumRepository extends JpaRepository<Auditorium, Integer> {
+    boolean existsByName(String name);
+}
@@ -1,32 +1,71 @@
 package com.moviebooking.repository;
 
+import com.moviebooking.dto.ReservationResponse;
 import com.moviebooking.entity.Reservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
+public interface ReservationRepository extends JpaRepository<Reservation, Integer>, ReservationRepositoryCustom {
     List<Reservation> findByUserId(Integer userId);
     
-    List<Reservation> findByUserIdAndIsCancelledFalse(Integer userId);
+    // Seat numbers are left empty here and filled in with one findSeatNumbersByReservationIds call per page
+    String SELECT_RESPONSE = "SELECT new com.moviebooking.dto.ReservationResponse(" +
+            "r.id, u.id, u.name, s.id, m.title, s.startTime, s.endTime, r.reservationDate, r.totalPrice, r.isCancelled) " +
+            "FROM Reservation r JOIN r.user u JOIN r.showtime s JOIN s.movie m ";
     
-    @Query("SELECT r FROM Reservation r WHERE r.user.id = :userId AND r.showtime.startTime > :now AND r.isCancelled = false")
-    List<Reservation> findUpcomingReservationsByUserId(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
+    @Query(SELECT_RESPONSE + "WHERE u.id = :userId AND s.startTime > :now AND r.isCancelled = false")
+    List<ReservationResponse> findUpcomingResponsesByUserId(@Param("userId") Integer userId, @Param("now") LocalDateTime now);
     
-    Optional<Reservation> findByIdAndUserId(Integer id, Integer userId);
+    @Query("SELECT r.showtime.id FROM Reservation r WHERE r.id = :id")
+    Optional<Integer> findShowtimeIdById(@Param("id") Integer id);
     
-    @Query("SELECT r FROM Reservation r WHERE r.isCancelled = false")
-    List<Reservation> findAllActiveReservations();
+    @Query(SELECT_RESPONSE + "WHERE r.id = :id AND u.id = :userId")
+    Optional<ReservationResponse> findResponseByIdAndUserId(@Param("id") Integer id, @Param("userId") Integer userId);
+    
+    // Keyset page over (reservationDate, id), newest first; a null filter or cursor matches everything
+    @Query(SELECT_RESPONSE + "WHERE r.isCancelled = false " +
+           "AND (:userId IS NULL OR u.id = :userId) " +
+           "AND (:showtimeId IS NULL OR s.id = :showtimeId) " +
+           "AND (:movieId IS NULL OR m.id = :movieId) " +
+           "AND (:from IS NULL OR r.reservationDate >= :from) " +
+           "AND (:to IS NULL OR r.reservationDate < :to) " +
+           "AND (:beforeDate IS NULL OR r.reservationDate < :beforeDate " +
+           "OR (r.reservationDate = :beforeDate AND r.id < :beforeId)) " +
+           "ORDER BY r.reservationDate DESC, r.id DESC")
+    List<ReservationResponse> findActiveResponsePage(@Param("userId") Integer userId,
+                                                     @Param("showtimeId") Integer showtimeId,
+                                                     @Param("movieId") Integer movieId,
+                                                     @Param("from") LocalDateTime from,
+                                                     @Param("to") LocalDateTime to,
+                                                     @Param("beforeDate") LocalDateTime beforeDate,
+                                                     @Param("beforeId") Integer beforeId,
+                                                     Pageable pageable);
+    
+    @Query("SELECT r.id AS reservationId, seatNumber AS seatNumber FROM Reservation r JOIN r.seatNumbers seatNumber " +
+           "WHERE r.id IN :reservationIds")
+    List<ReservedSeat> findSeatNumbersByReservationIds(@Param("reservationIds") Collection<Integer> reservationIds);
     
     @Query("SELECT r FROM Reservation r WHERE r.showtime.movie.id = :movieId AND r.isCancelled = false")
     List<Reservation> findByMovieId(@Param("movieId") Integer movieId);
     
     @Query("SELECT r FROM Reservation r WHERE r.showtime.id = :showtimeId AND r.isCancelled = false")
     List<Reservation> findByShowtimeId(@Param("showtimeId") Integer showtimeId);
+    
+    @Query("SELECT seatNumber FROM Reservation r JOIN r.seatNumbers seatNumber WHERE r.showtime.id = :showtimeId AND r.isCancelled = false")
+    List<String> findBookedSeatNumbersByShowtimeId(@Param("showtimeId") Integer showtimeId);
+    
+    interface ReservedSeat {
+        Integer getReservationId();
+        
+        String getSeatNumber();
+    }
 }
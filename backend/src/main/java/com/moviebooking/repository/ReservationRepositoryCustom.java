@@ -0,0 +1,15 @@
+package com.moviebooking.repository;
+
+import com.moviebooking.dto.ReservationExportRow;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public interface ReservationRepositoryCustom {
+    /**
+     * Streams every reservation (cancelled ones included) in id order, one row per reserved seat,
+     * reading from a forward-only cursor {@code fetchSize} rows at a time. Must be consumed and
+     * closed inside a transaction.
+     */
+    Stream<ReservationExportRow> streamForExport(LocalDateTime from, LocalDateTime to, Integer movieId, int fetchSize);
+}
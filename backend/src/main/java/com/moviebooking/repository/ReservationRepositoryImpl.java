@@ -0,0 +1,70 @@
+package com.moviebooking.repository;
+
+import com.moviebooking.dto.ReservationExportRow;
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.PropertySet;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.jdbc.JdbcConnection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.jpa.AvailableHints;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+public class ReservationRepositoryImpl implements ReservationRepositoryCustom {
+    private static final String EXPORT_QUERY = "SELECT new com.moviebooking.dto.ReservationExportRow(" +
+            "r.id, u.id, u.name, s.id, m.title, s.startTime, s.endTime, r.reservationDate, r.totalPrice, r.isCancelled, seatNumber) " +
+            "FROM Reservation r JOIN r.user u JOIN r.showtime s JOIN s.movie m LEFT JOIN r.seatNumbers seatNumber " +
+            "WHERE (:from IS NULL OR r.reservationDate >= :from) " +
+            "AND (:to IS NULL OR r.reservationDate < :to) " +
+            "AND (:movieId IS NULL OR m.id = :movieId) " +
+            "ORDER BY r.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<ReservationExportRow> streamForExport(LocalDateTime from, LocalDateTime to, Integer movieId, int fetchSize) {
+        Runnable restore = entityManager.unwrap(Session.class).doReturningWork(ReservationRepositoryImpl::enableCursorFetch);
+        try {
+            // DTO rows are never attached to the persistence context, so memory stays flat however many rows stream past
+            TypedQuery<ReservationExportRow> query = entityManager.createQuery(EXPORT_QUERY, ReservationExportRow.class)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .setParameter("movieId", movieId)
+                    .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                    .setHint(AvailableHints.HINT_READ_ONLY, true);
+            return query.getResultStream().onClose(restore);
+        } catch (RuntimeException e) {
+            restore.run();
+            throw e;
+        }
+    }
+
+    // Connector/J only honours the fetch size with useCursorFetch, which also prepares statements on the server.
+    // Both are switched on for this connection alone, while the export runs, so every other query keeps the
+    // client-side statements of the URL. Other drivers take the fetch size as it is
+    private static Runnable enableCursorFetch(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(JdbcConnection.class)) {
+            return () -> { };
+        }
+        // Both are read when a statement is prepared
+        PropertySet properties = connection.unwrap(JdbcConnection.class).getPropertySet();
+        RuntimeProperty<Boolean> cursorFetch = properties.getBooleanProperty(PropertyKey.useCursorFetch);
+        RuntimeProperty<Boolean> serverPrepare = properties.getBooleanProperty(PropertyKey.useServerPrepStmts);
+        boolean cursorFetchBefore = cursorFetch.getValue();
+        boolean serverPrepareBefore = serverPrepare.getValue();
+        cursorFetch.setValue(true);
+        serverPrepare.setValue(true);
+        // The pooled connection goes back the way it came
+        return () -> {
+            cursorFetch.setValue(cursorFetchBefore);
+            serverPrepare.setValue(serverPrepareBefore);
+        };
+    }
+}
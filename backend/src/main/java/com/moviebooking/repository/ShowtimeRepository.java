@@ -1,20 +1,84 @@
 package com.moviebooking.repository;
 
+import com.moviebooking.dto.ReportResponse;
+import com.moviebooking.dto.ShowtimeResponse;
 import com.moviebooking.entity.Showtime;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ShowtimeRepository extends JpaRepository<Showtime, Integer> {
-    List<Showtime> findByMovieId(Integer movieId);
-    
-    @Query("SELECT s FROM Showtime s WHERE s.movie.id = :movieId AND DATE(s.startTime) = DATE(:date)")
-    List<Showtime> findByMovieIdAndDate(@Param("movieId") Integer movieId, @Param("date") LocalDateTime date);
-    
-    List<Showtime> findByStartTimeAfter(LocalDateTime dateTime);
+    String SELECT_RESPONSE = "SELECT new com.moviebooking.dto.ShowtimeResponse(" +
+            "s.id, m.id, m.title, s.startTime, s.endTime, s.totalSeats, s.totalSeats - s.bookedSeats, a.id, a.name) " +
+            "FROM Showtime s JOIN s.movie m LEFT JOIN s.auditorium a ";
+
+    boolean existsByAuditoriumId(Integer auditoriumId);
+
+    @Query("SELECT s FROM Showtime s WHERE NOT EXISTS (SELECT m FROM ShowtimeSeatMap m WHERE m.showtimeId = s.id)")
+    List<Showtime> findWithoutSeatMap();
+
+    @Query(SELECT_RESPONSE + "WHERE s.id = :id")
+    Optional<ShowtimeResponse> findResponseById(@Param("id") Integer id);
+
+    @Query(SELECT_RESPONSE + "WHERE m.id = :movieId")
+    List<ShowtimeResponse> findResponsesByMovieId(@Param("movieId") Integer movieId);
+
+    @Query(SELECT_RESPONSE + "WHERE m.id = :movieId AND DATE(s.startTime) = DATE(:date)")
+    List<ShowtimeResponse> findResponsesByMovieIdAndDate(@Param("movieId") Integer movieId, @Param("date") LocalDateTime date);
+
+    @Query(SELECT_RESPONSE + "WHERE s.startTime > :now")
+    List<ShowtimeResponse> findUpcomingResponses(@Param("now") LocalDateTime now);
+
+    @Query("SELECT s.id FROM Showtime s WHERE s.id IN :ids AND s.endTime > :now")
+    List<Integer> findNotEndedIds(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Showtime s SET s.bookedSeats = s.bookedSeats + :seats, " +
+           "s.reservationCount = s.reservationCount + :reservations, s.revenueCents = s.revenueCents + :revenueCents " +
+           "WHERE s.id = :id")
+    int applyBookingDelta(@Param("id") Integer id, @Param("seats") int seats,
+                          @Param("reservations") long reservations, @Param("revenueCents") long revenueCents);
+
+    @Query("SELECT COALESCE(SUM(s.reservationCount), 0) FROM Showtime s")
+    Long sumReservationCount();
+
+    @Query("SELECT COALESCE(SUM(s.revenueCents), 0) / 100.0 FROM Showtime s")
+    Double sumRevenue();
+
+    @Query("SELECT new com.moviebooking.dto.ReportResponse$MovieRevenueResponse(" +
+           "m.id, m.title, SUM(s.reservationCount), SUM(s.revenueCents) / 100.0) " +
+           "FROM Showtime s JOIN s.movie m GROUP BY m.id, m.title HAVING SUM(s.reservationCount) > 0")
+    List<ReportResponse.MovieRevenueResponse> findMovieRevenues();
+
+    @Query("SELECT new com.moviebooking.dto.ReportResponse$ShowtimeOccupancyResponse(" +
+           "s.id, m.title, s.totalSeats, s.bookedSeats, " +
+           "CASE WHEN s.totalSeats > 0 THEN s.bookedSeats * 100.0 / s.totalSeats ELSE 0.0 END) " +
+           "FROM Showtime s JOIN s.movie m")
+    List<ReportResponse.ShowtimeOccupancyResponse> findShowtimeOccupancies();
+
+    // Aggregates are checked against the reservations, which are the source of truth for booked seats
+    @Query("SELECT COUNT(s) FROM Showtime s WHERE " +
+           "s.bookedSeats <> (SELECT COUNT(seatNumber) FROM Reservation r JOIN r.seatNumbers seatNumber " +
+           "WHERE r.showtime = s AND r.isCancelled = false) OR " +
+           "s.reservationCount <> (SELECT COUNT(r) FROM Reservation r WHERE r.showtime = s AND r.isCancelled = false) OR " +
+           "s.revenueCents <> (SELECT CAST(COALESCE(SUM(ROUND(r.totalPrice * 100, 0)), 0) AS Long) FROM Reservation r " +
+           "WHERE r.showtime = s AND r.isCancelled = false)")
+    long countDriftedAggregates();
+
+    @Modifying
+    @Query("UPDATE Showtime s SET " +
+           "s.bookedSeats = (SELECT COUNT(seatNumber) FROM Reservation r JOIN r.seatNumbers seatNumber " +
+           "WHERE r.showtime = s AND r.isCancelled = false), " +
+           "s.reservationCount = (SELECT COUNT(r) FROM Reservation r WHERE r.showtime = s AND r.isCancelled = false), " +
+           "s.revenueCents = (SELECT CAST(COALESCE(SUM(ROUND(r.totalPrice * 100, 0)), 0) AS Long) FROM Reservation r " +
+           "WHERE r.showtime = s AND r.isCancelled = false)")
+    int rebuildAggregates();
 }
@@ -0,0 +1,45 @@
+package com.moviebooking.repository;
+
+import com.moviebooking.entity.ShowtimeSeatMap;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ShowtimeSeatMapRepository extends JpaRepository<ShowtimeSeatMap, Integer> {
+    // Serializes writers of the same showtime; contention is already settled in memory by SeatStateEngine
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM ShowtimeSeatMap m WHERE m.showtimeId = :showtimeId")
+    Optional<ShowtimeSeatMap> findByShowtimeIdForUpdate(@Param("showtimeId") Integer showtimeId);
+
+    // A projection rather than the entity, so a retry or a later locked read never gets a stale managed instance back
+    @Query("SELECT m.bookedBits AS bookedBits, m.version AS version FROM ShowtimeSeatMap m WHERE m.showtimeId = :showtimeId")
+    Optional<SeatMapState> findStateByShowtimeId(@Param("showtimeId") Integer showtimeId);
+
+    // Optimistic write: updates nothing if another writer got there first
+    @Modifying
+    @Query("UPDATE ShowtimeSeatMap m SET m.bookedBits = :bookedBits, m.version = m.version + 1 " +
+            "WHERE m.showtimeId = :showtimeId AND m.version = :version")
+    int updateIfVersion(@Param("showtimeId") Integer showtimeId, @Param("bookedBits") byte[] bookedBits,
+                        @Param("version") Long version);
+
+    @Modifying
+    @Query("DELETE FROM ShowtimeSeatMap m WHERE m.showtimeId = :showtimeId")
+    int deleteByShowtimeId(@Param("showtimeId") Integer showtimeId);
+
+    @Modifying
+    @Query("DELETE FROM ShowtimeSeatMap m WHERE m.showtimeId IN (SELECT s.id FROM Showtime s WHERE s.movie.id = :movieId)")
+    int deleteByMovieId(@Param("movieId") Integer movieId);
+
+    interface SeatMapState {
+        byte[] getBookedBits();
+
+        Long getVersion();
+    }
+}
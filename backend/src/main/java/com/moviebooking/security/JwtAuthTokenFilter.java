@@ -1,5 +1,7 @@
 package com.moviebooking.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,42 +9,73 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class JwtAuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private StreamTicketService streamTicketService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthTokenFilter.class);
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        // Times only this filter's own work, not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
+            String ticket = jwt == null ? parseStreamTicket(request) : null;
+            Optional<UserPrincipal> principal = Optional.empty();
+            if (jwt != null) {
+                principal = jwtUtils.parseJwtToken(jwt).map(jwtUtils::createPrincipal);
+            } else if (ticket != null) {
+                principal = streamTicketService.redeem(ticket,
+                        request.getRequestURI().substring(request.getContextPath().length()));
+            }
+            if ((jwt != null || ticket != null) && principal.isEmpty()) {
+                outcome = "invalid";
+            }
+            if (principal.isPresent()) {
+                UserPrincipal userPrincipal = principal.get();
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (tokenRevocationService.isTokenCurrent(userPrincipal)) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userPrincipal, null, userPrincipal.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = "authenticated";
+                } else {
+                    logger.warn("Rejected revoked JWT token for user {}", userPrincipal.getId());
+                    outcome = "revoked";
+                }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
+            outcome = "error";
         }
+        sample.stop(Timer.builder("auth.filter")
+                .description("Time spent authenticating a request's JWT")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
 
         filterChain.doFilter(request, response);
     }
@@ -56,4 +89,17 @@ public class JwtAuthTokenFilter extends OncePerRequestFilter {
 
         return null;
     }
+
+    // EventSource cannot set headers, so event streams carry a single-use ticket (never the JWT) in the query
+    private String parseStreamTicket(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        if (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+            String ticket = request.getParameter("ticket");
+            if (StringUtils.hasText(ticket)) {
+                return ticket;
+            }
+        }
+
+        return null;
+    }
 }
@@ -1,16 +1,29 @@
 package com.moviebooking.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
@@ -22,8 +35,26 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${app.security.verified-token-cache-size:10000}")
+    private long verifiedTokenCacheSize;
+
+    // Built once: the key and parser are immutable and safe to share across request threads
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Recently verified tokens, each kept only until the token itself expires
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
 
     public String generateJwtToken(Authentication authentication) {
@@ -32,38 +63,31 @@ public class JwtUtils {
         return Jwts.builder()
                 .subject(userPrincipal.getUsername())
                 .claim("id", userPrincipal.getId())
-                .claim("roles", userPrincipal.getAuthorities())
+                .claim("name", userPrincipal.getName())
+                .claim("roles", userPrincipal.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.toList()))
+                .claim("ver", userPrincipal.getTokenVersion())
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
-
-    public Integer getUserIdFromJwtToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("id", Integer.class);
-    }
+    /**
+     * Verifies the token and returns its claims, or empty if it is invalid or expired.
+     * Tokens seen recently are served from cache without repeating the signature check.
+     */
+    public Optional<Claims> parseJwtToken(String authToken) {
+        Claims cached = verifiedTokens.getIfPresent(authToken);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(authToken).getPayload();
+            verifiedTokens.put(authToken, claims);
+            return Optional.of(claims);
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -72,7 +96,60 @@ public class JwtUtils {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token is invalid: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseJwtToken(authToken).isPresent();
+    }
+
+    // Rebuilds the principal from the token's own claims so authenticated requests need no user lookup
+    public UserPrincipal createPrincipal(Claims claims) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        Object roles = claims.get("roles");
+        if (roles instanceof Collection<?> values) {
+            for (Object role : values) {
+                // Older tokens serialized each authority as {"authority": "ROLE_..."}
+                Object authority = role instanceof Map<?, ?> map ? map.get("authority") : role;
+                if (authority != null) {
+                    authorities.add(new SimpleGrantedAuthority(authority.toString()));
+                }
+            }
+        }
+
+        Integer tokenVersion = claims.get("ver", Integer.class);
+        return new UserPrincipal(
+                claims.get("id", Integer.class),
+                claims.get("name", String.class),
+                claims.getSubject(),
+                null,
+                tokenVersion != null ? tokenVersion : 0,
+                authorities
+        );
+    }
+
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
-        return false;
     }
 }
@@ -0,0 +1,73 @@
+package com.moviebooking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Short-lived, single-use tickets for opening a seat map event stream. EventSource cannot send an
+ * Authorization header, so browsers first trade their JWT for a ticket and pass that in the stream URL
+ * instead; a ticket opens only the stream it was issued for, once, and soon expires, so a URL that ends
+ * up in a log or proxy is worthless.
+ */
+@Service
+public class StreamTicketService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Value("${app.seats.stream-ticket-seconds:30}")
+    private long ticketSeconds;
+
+    private Cache<String, Ticket> tickets;
+
+    @PostConstruct
+    void init() {
+        tickets = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ticketSeconds))
+                .maximumSize(100000)
+                .build();
+    }
+
+    public static String streamPath(Integer showtimeId) {
+        return "/api/seats/showtime/" + showtimeId + "/stream";
+    }
+
+    public String issue(UserPrincipal principal, Integer showtimeId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(principal, streamPath(showtimeId)));
+        return ticket;
+    }
+
+    /**
+     * Uses up the ticket and returns its holder, if it is still valid and was issued for the given path.
+     */
+    public Optional<UserPrincipal> redeem(String ticket, String path) {
+        Ticket redeemed = tickets.asMap().remove(ticket);
+        if (redeemed == null || !redeemed.path.equals(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(redeemed.principal);
+    }
+
+    public long getTicketSeconds() {
+        return ticketSeconds;
+    }
+
+    private static final class Ticket {
+        private final UserPrincipal principal;
+        private final String path;
+
+        private Ticket(UserPrincipal principal, String path) {
+            this.principal = principal;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.moviebooking.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * Forced logout support for stateless tokens. Every token carries the user's token version at issue
+ * time; bumping the version in the database revokes all of them. Current versions are cached briefly,
+ * so a revocation takes effect on other nodes within the cache TTL.
+ */
+@Service
+public class TokenRevocationService {
+    // Cached for users that no longer exist so their tokens never match
+    private static final int DELETED_USER_VERSION = -1;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.security.token-version-cache-seconds:60}")
+    private long cacheSeconds;
+
+    @Value("${app.security.token-version-cache-size:100000}")
+    private long cacheSize;
+
+    private Cache<Integer, Integer> tokenVersions;
+
+    @PostConstruct
+    void init() {
+        tokenVersions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    public boolean isTokenCurrent(UserPrincipal principal) {
+        if (principal.getId() == null) {
+            return false;
+        }
+
+        int currentVersion = tokenVersions.get(principal.getId(), id ->
+                userRepository.findTokenVersionById(id).orElse(DELETED_USER_VERSION));
+        return principal.getTokenVersion() == currentVersion;
+    }
+
+    @Transactional
+    public void revokeAllTokens(Integer userId) {
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+
+        // Drop the cached version once the bump is visible, so it cannot be re-cached from a stale read
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenVersions.invalidate(userId);
+            }
+        });
+    }
+}
@@ -13,14 +13,16 @@ public class UserPrincipal implements UserDetails {
     private String name;
     private String email;
     private String password;
+    private Integer tokenVersion;
     private Collection<? extends GrantedAuthority> authorities;
 
-    public UserPrincipal(Integer id, String name, String email, String password,
+    public UserPrincipal(Integer id, String name, String email, String password, Integer tokenVersion,
                          Collection<? extends GrantedAuthority> authorities) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.password = password;
+        this.tokenVersion = tokenVersion;
         this.authorities = authorities;
     }
 
@@ -34,6 +36,7 @@ public class UserPrincipal implements UserDetails {
                 user.getName(),
                 user.getEmail(),
                 user.getPassword(),
+                user.getTokenVersion(),
                 authorities
         );
     }
@@ -46,6 +49,10 @@ public class UserPrincipal implements UserDetails {
         return name;
     }
 
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
     @Override
     public String getUsername() {
         return email;
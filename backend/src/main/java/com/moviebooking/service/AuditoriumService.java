@@ -0,0 +1,77 @@
+package com.moviebooking.service;
+
+import com.moviebooking.dto.AuditoriumRequest;
+import com.moviebooking.dto.AuditoriumResponse;
+import com.moviebooking.entity.Auditorium;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.repository.AuditoriumRepository;
+import com.moviebooking.repository.ShowtimeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+public class AuditoriumService {
+    @Autowired
+    private AuditoriumRepository auditoriumRepository;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Transactional
+    public AuditoriumResponse createAuditorium(AuditoriumRequest request) {
+        if (auditoriumRepository.existsByName(request.getName())) {
+            throw new BadRequestException("Auditorium already exists: " + request.getName());
+        }
+        if ((long) request.getRowCount() * request.getSeatsPerRow() > SeatLayout.MAX_SEATS) {
+            throw new BadRequestException("An auditorium can have at most " + SeatLayout.MAX_SEATS + " seats");
+        }
+
+        Auditorium auditorium = new Auditorium();
+        auditorium.setName(request.getName());
+        auditorium.setRowCount(request.getRowCount());
+        auditorium.setSeatsPerRow(request.getSeatsPerRow());
+        auditorium.setTotalSeats(request.getRowCount() * request.getSeatsPerRow());
+
+        Auditorium savedAuditorium = auditoriumRepository.save(auditorium);
+        return mapToResponse(savedAuditorium);
+    }
+
+    @Transactional
+    public void deleteAuditorium(Integer id) {
+        Auditorium auditorium = auditoriumRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Auditorium not found with id: " + id));
+
+        // Showtimes keep their seat maps laid out on this grid
+        if (showtimeRepository.existsByAuditoriumId(id)) {
+            throw new BadRequestException("Cannot delete an auditorium that has showtimes");
+        }
+        auditoriumRepository.delete(auditorium);
+    }
+
+    public AuditoriumResponse getAuditoriumById(Integer id) {
+        Auditorium auditorium = auditoriumRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Auditorium not found with id: " + id));
+        return mapToResponse(auditorium);
+    }
+
+    public List<AuditoriumResponse> getAllAuditoriums() {
+        return auditoriumRepository.findAll().stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    private AuditoriumResponse mapToResponse(Auditorium auditorium) {
+        return new AuditoriumResponse(
+                auditorium.getId(),
+                auditorium.getName(),
+                auditorium.getRowCount(),
+                auditorium.getSeatsPerRow(),
+                auditorium.getTotalSeats()
+        );
+    }
+}
@@ -68,38 +68,18 @@ public class AuthService {
         roles.add(userRole);
         user.setRoles(roles);
 
-        userRepository.save(user);
+        User savedUser = userRepository.save(user);
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        List<String> userRoles = userPrincipal.getAuthorities().stream()
-                .map(item -> item.getAuthority().replace("ROLE_", ""))
-                .collect(Collectors.toList());
-
-        return new JwtResponse(jwt, "Bearer", userPrincipal.getId(), userPrincipal.getName(),
-                userPrincipal.getUsername(), userRoles);
+        // The password was just hashed, so authenticating would only hash it a second time
+        UserPrincipal userPrincipal = UserPrincipal.create(savedUser);
+        return issueToken(new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities()));
     }
 
     @Transactional
     public JwtResponse login(LoginRequest request) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
-
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        List<String> userRoles = userPrincipal.getAuthorities().stream()
-                .map(item -> item.getAuthority().replace("ROLE_", ""))
-                .collect(Collectors.toList());
-
-        return new JwtResponse(jwt, "Bearer", userPrincipal.getId(), userPrincipal.getName(),
-                userPrincipal.getUsername(), userRoles);
+        return issueToken(authentication);
     }
 
     @Transactional
@@ -130,4 +110,17 @@ public class AuthService {
 
         userRepository.save(admin);
     }
+
+    private JwtResponse issueToken(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        String jwt = jwtUtils.generateJwtToken(authentication);
+
+        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+        List<String> userRoles = userPrincipal.getAuthorities().stream()
+                .map(item -> item.getAuthority().replace("ROLE_", ""))
+                .collect(Collectors.toList());
+
+        return new JwtResponse(jwt, "Bearer", userPrincipal.getId(), userPrincipal.getName(),
+                userPrincipal.getUsername(), userRoles);
+    }
 }
@@ -0,0 +1,13 @@
+package com.moviebooking.service;
+
+/**
+ * How bookings write a showtime's seat map row, set with {@code app.booking.lock-mode}.
+ */
+public enum BookingLockMode {
+    // Lock the row for the whole transaction (SELECT ... FOR UPDATE)
+    PESSIMISTIC,
+    // Read without locking and write conditionally on the row version, retrying on conflict
+    OPTIMISTIC,
+    // Optimistic for quiet showtimes, pessimistic for showtimes that are seeing contention
+    ADAPTIVE
+}
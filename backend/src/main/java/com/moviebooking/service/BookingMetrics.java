@@ -0,0 +1,107 @@
+package com.moviebooking.service;
+
+import com.moviebooking.dto.ReservationResponse;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.exception.ConflictException;
+import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.exception.SeatUnavailableException;
+import com.moviebooking.repository.ShowtimeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Booking meters: latency by booking type and outcome, seats per successful booking, time spent
+ * waiting for seat map row locks, and per-showtime contention (seats lost to another booking,
+ * optimistic writes that had to retry). Contention meters of showtimes that have ended or been
+ * deleted are removed periodically, so the showtime tag only covers the current schedule.
+ */
+@Component
+public class BookingMetrics {
+    public static final String CONTENTION = "booking.contention";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    public ReservationResponse timeBooking(String type, Integer showtimeId, Supplier<ReservationResponse> booking) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            ReservationResponse reservation = booking.get();
+            outcome = "success";
+            DistributionSummary.builder("booking.seats")
+                    .description("Seats per successful booking")
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .record(reservation.getSeatNumbers().size());
+            return reservation;
+        } catch (SeatUnavailableException e) {
+            outcome = "already_booked";
+            countContention(showtimeId, "already_booked");
+            throw e;
+        } catch (ResourceNotFoundException e) {
+            outcome = "not_found";
+            throw e;
+        } catch (ConflictException e) {
+            outcome = "conflict";
+            throw e;
+        } catch (BadRequestException e) {
+            outcome = "rejected";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("booking.latency")
+                    .description("Time to create a reservation, by outcome")
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordLockWait(long nanos) {
+        Timer.builder("booking.seat-lock.wait")
+                .description("Time spent waiting for a showtime's seat map row lock")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordVersionConflict(Integer showtimeId) {
+        countContention(showtimeId, "version_conflict");
+    }
+
+    @Scheduled(fixedDelayString = "${app.metrics.showtime-sweep-ms:3600000}")
+    public void removeEndedShowtimes() {
+        Map<Integer, List<Meter>> metersByShowtime = meterRegistry.find(CONTENTION).meters().stream()
+                .collect(Collectors.groupingBy(meter -> Integer.valueOf(meter.getId().getTag("showtime"))));
+        if (metersByShowtime.isEmpty()) {
+            return;
+        }
+
+        showtimeRepository.findNotEndedIds(metersByShowtime.keySet(), LocalDateTime.now())
+                .forEach(metersByShowtime::remove);
+        metersByShowtime.values().forEach(meters -> meters.forEach(meterRegistry::remove));
+    }
+
+    private void countContention(Integer showtimeId, String reason) {
+        Counter.builder(CONTENTION)
+                .description("Bookings that collided with another booking for the same showtime")
+                .tag("showtime", String.valueOf(showtimeId))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,39 @@
+package com.moviebooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.moviebooking.dto.CacheStatsResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+public class CacheStatsService {
+    @Autowired
+    private CacheManager cacheManager;
+
+    public List<CacheStatsResponse> getCacheStats() {
+        return cacheManager.getCacheNames().stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .filter(cache -> cache.getNativeCache() instanceof Cache)
+                .map(cache -> mapToResponse(cache.getName(), (Cache<?, ?>) cache.getNativeCache()))
+                .collect(Collectors.toList());
+    }
+
+    private CacheStatsResponse mapToResponse(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(
+                name,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package com.moviebooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moviebooking.dto.ReservationRequest;
+import com.moviebooking.dto.ReservationResponse;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.exception.ConflictException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays reservation results for retried requests carrying the same Idempotency-Key. Keys are scoped
+ * per user and kept in a bounded, expiring in-memory store together with the request they were first
+ * used for. The first request runs; duplicates arriving while it is in flight wait for its outcome,
+ * and later ones get the stored response without touching any seats. Failures are not stored, so a
+ * retry after an error books again.
+ */
+@Service
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${app.idempotency.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${app.idempotency.max-entries:100000}")
+    private long maxEntries;
+
+    @Value("${app.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private Cache<String, Entry> entries;
+
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    public ReservationResponse execute(Integer userId, String idempotencyKey, ReservationRequest request,
+                                       Supplier<ReservationResponse> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String key = userId + ":" + idempotencyKey;
+        Entry entry = new Entry(fingerprint(request));
+        Entry existing = entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(entry.fingerprint)) {
+                throw new BadRequestException("Idempotency-Key was already used for a different request");
+            }
+            return await(existing);
+        }
+
+        try {
+            ReservationResponse response = action.get();
+            entry.result.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Let the next retry run again, but hand this outcome to duplicates already waiting
+            entries.asMap().remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public long getEntryCount() {
+        return entries.estimatedSize();
+    }
+
+    private ReservationResponse await(Entry entry) {
+        try {
+            return entry.result.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        }
+    }
+
+    private static String fingerprint(ReservationRequest request) {
+        return request.getShowtimeId() + ":" + String.join(",", request.getSeatNumbers());
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ReservationResponse> result = new CompletableFuture<>();
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.moviebooking.service;
+
+import com.moviebooking.config.ReadRouting;
+import com.moviebooking.dto.MovieResponse;
+import com.moviebooking.dto.MovieSearchResponse;
+import com.moviebooking.entity.Movie;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.repository.MovieRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over movie titles, genres and descriptions. Terms are kept sorted, so
+ * every query word matches as a prefix with a range scan, which is what typeahead needs. A movie
+ * must match all query words. Its score adds up per word: title matches count most, then genre,
+ * then description, and a whole-word match counts double a prefix match.
+ * <p>
+ * Movies are numbered with dense slots and each term's postings are an immutable array of slots,
+ * replaced on write, so a search is array scans into per-thread score arrays and a top-k heap.
+ * {@link MovieService} updates the index after each commit, and a periodic rebuild picks up
+ * changes made through other instances. Writers are serialized; searches take no locks.
+ */
+@Component
+public class MovieSearchIndex {
+    public static final int MAX_LIMIT = 100;
+
+    private static final int TITLE_WEIGHT = 4;
+    private static final int GENRE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt((Match match) -> match.score).reversed()
+            .thenComparing(match -> match.entry.sortTitle)
+            .thenComparing(match -> match.entry.movie.getId());
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    private final Object writeLock = new Object();
+
+    private volatile Index index = new Index();
+
+    public MovieSearchResponse search(String query, String genre, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        String genreFilter = genre == null || genre.isBlank() ? null : genre.trim();
+
+        // Worst match kept at the head, so it is the one dropped
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Map<String, int[]> genreCounts = new HashMap<>();
+        int[] total = new int[1];
+        index.match(new ArrayList<>(new LinkedHashSet<>(tokenize(query))), (entry, score) -> {
+            genreCounts.computeIfAbsent(entry.movie.getGenre(), key -> new int[1])[0]++;
+            if (genreFilter != null && !entry.movie.getGenre().equalsIgnoreCase(genreFilter)) {
+                return;
+            }
+            total[0]++;
+            Match match = new Match(entry, score);
+            if (best.size() < limit) {
+                best.add(match);
+            } else if (RANKING.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        });
+
+        List<MovieResponse> movies = best.stream()
+                .sorted(RANKING)
+                .map(match -> match.entry.movie)
+                .toList();
+        return new MovieSearchResponse(movies, total[0], sortFacets(genreCounts));
+    }
+
+    public void putAfterCommit(MovieResponse movie) {
+        runAfterCommit(() -> {
+            synchronized (writeLock) {
+                index.put(movie);
+            }
+        });
+    }
+
+    public void removeAfterCommit(Integer movieId) {
+        runAfterCommit(() -> {
+            synchronized (writeLock) {
+                index.remove(movieId);
+            }
+        });
+    }
+
+    /**
+     * Reindexes every movie from the primary and swaps the result in. Updates committed meanwhile wait
+     * for the swap and are applied to the new index, so none are lost. Also compacts the slots left
+     * behind by deleted movies.
+     */
+    @Scheduled(fixedDelayString = "${app.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            Index rebuilt = new Index();
+            ReadRouting.onPrimary(movieRepository::findAll).forEach(movie -> rebuilt.put(toResponse(movie)));
+            index = rebuilt;
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(folded)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    private static Map<String, Integer> sortFacets(Map<String, int[]> counts) {
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, int[]> count) -> count.getValue()[0]).reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(count -> sorted.put(count.getKey(), count.getValue()[0]));
+        return sorted;
+    }
+
+    private static MovieResponse toResponse(Movie movie) {
+        return new MovieResponse(movie.getId(), movie.getTitle(), movie.getDescription(), movie.getGenre(),
+                movie.getPosterUrl());
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private interface MatchVisitor {
+        void visit(Entry entry, int score);
+    }
+
+    private static final class Index {
+        // Slot to movie; slots of deleted movies stay empty until the next rebuild
+        private volatile AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(64);
+        private final ConcurrentNavigableMap<String, Posting> postings = new ConcurrentSkipListMap<>();
+        // Only touched by writers
+        private final Map<Integer, Integer> slots = new HashMap<>();
+        private int nextSlot;
+
+        // Callers hold the write lock
+        void put(MovieResponse movie) {
+            Integer slot = slots.get(movie.getId());
+            if (slot == null) {
+                slot = nextSlot++;
+                slots.put(movie.getId(), slot);
+                if (slot == entries.length()) {
+                    AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(slot * 2);
+                    for (int i = 0; i < slot; i++) {
+                        grown.set(i, entries.get(i));
+                    }
+                    entries = grown;
+                }
+            }
+
+            Entry entry = new Entry(movie);
+            Entry previous = entries.getAndSet(slot, entry);
+            int movieSlot = slot;
+            entry.terms.forEach((term, weight) -> postings.put(term, Posting.with(postings.get(term), movieSlot, weight)));
+            if (previous != null) {
+                previous.terms.keySet().stream()
+                        .filter(term -> !entry.terms.containsKey(term))
+                        .forEach(term -> removePosting(term, movieSlot));
+            }
+        }
+
+        void remove(Integer movieId) {
+            Integer slot = slots.remove(movieId);
+            if (slot == null) {
+                return;
+            }
+            Entry previous = entries.getAndSet(slot, null);
+            if (previous != null) {
+                previous.terms.keySet().forEach(term -> removePosting(term, slot));
+            }
+        }
+
+        private void removePosting(String term, int slot) {
+            Posting remaining = Posting.without(postings.get(term), slot);
+            if (remaining == null) {
+                postings.remove(term);
+            } else {
+                postings.put(term, remaining);
+            }
+        }
+
+        /**
+         * Visits every movie matching all terms, or every movie if there are none. Postings may name
+         * slots newer than this search's view of the entries; those movies are skipped.
+         */
+        void match(List<String> terms, MatchVisitor visitor) {
+            AtomicReferenceArray<Entry> view = entries;
+            int capacity = view.length();
+            if (terms.isEmpty()) {
+                for (int slot = 0; slot < capacity; slot++) {
+                    Entry entry = view.get(slot);
+                    if (entry != null) {
+                        visitor.visit(entry, 0);
+                    }
+                }
+                return;
+            }
+
+            Scratch scratch = SCRATCH.get().ensureCapacity(capacity);
+            int[] matchedWords = scratch.matchedWords;
+            int[] scores = scratch.scores;
+            int[] wordScores = scratch.wordScores;
+            // The first word's matches include all later ones, so they are also what gets reset
+            int[] firstWord = scratch.firstWord;
+            int firstWordSize = 0;
+            try {
+                for (int word = 0; word < terms.size(); word++) {
+                    int[] touched = word == 0 ? firstWord : scratch.touched;
+                    int touchedSize = 0;
+                    String term = terms.get(word);
+                    // Every indexed term starting with the query word
+                    for (Map.Entry<String, Posting> posting
+                            : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                        int boost = posting.getKey().length() == term.length() ? 2 : 1;
+                        int[] postingSlots = posting.getValue().slots;
+                        int[] weights = posting.getValue().weights;
+                        for (int i = 0; i < postingSlots.length; i++) {
+                            int slot = postingSlots[i];
+                            if (slot >= capacity || matchedWords[slot] != word) {
+                                continue;
+                            }
+                            if (wordScores[slot] == 0) {
+                                touched[touchedSize++] = slot;
+                            }
+                            wordScores[slot] = Math.max(wordScores[slot], weights[i] * boost);
+                        }
+                    }
+
+                    for (int i = 0; i < touchedSize; i++) {
+                        int slot = touched[i];
+                        scores[slot] += wordScores[slot];
+                        wordScores[slot] = 0;
+                        matchedWords[slot] = word + 1;
+                    }
+                    if (word == 0) {
+                        firstWordSize = touchedSize;
+                    }
+                    if (touchedSize == 0) {
+                        break;
+                    }
+                }
+
+                for (int i = 0; i < firstWordSize; i++) {
+                    int slot = firstWord[i];
+                    Entry entry = view.get(slot);
+                    if (matchedWords[slot] == terms.size() && entry != null) {
+                        visitor.visit(entry, scores[slot]);
+                    }
+                }
+            } finally {
+                for (int i = 0; i < firstWordSize; i++) {
+                    matchedWords[firstWord[i]] = 0;
+                    scores[firstWord[i]] = 0;
+                }
+            }
+        }
+    }
+
+    // A term's movies and the weight it carries in each; replaced, never changed
+    private static final class Posting {
+        private final int[] slots;
+        private final int[] weights;
+
+        private Posting(int[] slots, int[] weights) {
+            this.slots = slots;
+            this.weights = weights;
+        }
+
+        static Posting with(Posting posting, int slot, int weight) {
+            if (posting == null) {
+                return new Posting(new int[]{slot}, new int[]{weight});
+            }
+            int[] slots = posting.slots;
+            int[] weights = posting.weights.clone();
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] == slot) {
+                    weights[i] = weight;
+                    return new Posting(slots, weights);
+                }
+            }
+            int[] grownSlots = Arrays.copyOf(slots, slots.length + 1);
+            int[] grownWeights = Arrays.copyOf(weights, weights.length + 1);
+            grownSlots[slots.length] = slot;
+            grownWeights[slots.length] = weight;
+            return new Posting(grownSlots, grownWeights);
+        }
+
+        // Null once no movie is left
+        static Posting without(Posting posting, int slot) {
+            if (posting == null) {
+                return null;
+            }
+            int[] slots = new int[posting.slots.length];
+            int[] weights = new int[posting.slots.length];
+            int size = 0;
+            for (int i = 0; i < posting.slots.length; i++) {
+                if (posting.slots[i] != slot) {
+                    slots[size] = posting.slots[i];
+                    weights[size++] = posting.weights[i];
+                }
+            }
+            return size == 0 ? null : new Posting(Arrays.copyOf(slots, size), Arrays.copyOf(weights, size));
+        }
+    }
+
+    // Per-thread arrays indexed by slot, all zero between searches
+    private static final class Scratch {
+        private int[] matchedWords = new int[0];
+        private int[] scores = new int[0];
+        private int[] wordScores = new int[0];
+        private int[] firstWord = new int[0];
+        private int[] touched = new int[0];
+
+        Scratch ensureCapacity(int capacity) {
+            if (matchedWords.length < capacity) {
+                matchedWords = new int[capacity];
+                scores = new int[capacity];
+                wordScores = new int[capacity];
+                firstWord = new int[capacity];
+                touched = new int[capacity];
+            }
+            return this;
+        }
+    }
+
+    private static final class Entry {
+        private final MovieResponse movie;
+        private final String sortTitle;
+        private final Map<String, Integer> terms = new HashMap<>();
+
+        private Entry(MovieResponse movie) {
+            this.movie = movie;
+            this.sortTitle = movie.getTitle().toLowerCase(Locale.ROOT);
+            addField(movie.getTitle(), TITLE_WEIGHT);
+            addField(movie.getGenre(), GENRE_WEIGHT);
+            addField(movie.getDescription(), DESCRIPTION_WEIGHT);
+        }
+
+        // Each field counts once per term, however often the term appears in it
+        private void addField(String text, int weight) {
+            new LinkedHashSet<>(tokenize(text)).forEach(term -> terms.merge(term, weight, Integer::sum));
+        }
+    }
+
+    private static final class Match {
+        private final Entry entry;
+        private final int score;
+
+        private Match(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+    }
+}
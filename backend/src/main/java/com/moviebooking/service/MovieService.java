@@ -1,11 +1,18 @@
 package com.moviebooking.service;
 
+import com.moviebooking.config.CacheConfig;
+import com.moviebooking.config.ReadRouting;
 import com.moviebooking.dto.MovieRequest;
 import com.moviebooking.dto.MovieResponse;
+import com.moviebooking.dto.MovieSearchResponse;
 import com.moviebooking.entity.Movie;
 import com.moviebooking.exception.ResourceNotFoundException;
 import com.moviebooking.repository.MovieRepository;
+import com.moviebooking.repository.ShowtimeSeatMapRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,7 +26,17 @@ public class MovieService {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private ShowtimeSeatMapRepository showtimeSeatMapRepository;
+
+    @Autowired
+    private SeatStateEngine seatStateEngine;
+
+    @Autowired
+    private MovieSearchIndex movieSearchIndex;
+
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.MOVIES, allEntries = true)
     public MovieResponse createMovie(MovieRequest request) {
         Movie movie = new Movie();
         movie.setTitle(request.getTitle());
@@ -28,10 +45,17 @@ public class MovieService {
         movie.setPosterUrl(request.getPosterUrl());
 
         Movie savedMovie = movieRepository.save(movie);
-        return mapToResponse(savedMovie);
+        MovieResponse response = mapToResponse(savedMovie);
+        movieSearchIndex.putAfterCommit(response);
+        return response;
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MOVIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.SHOWTIMES_BY_MOVIE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_SHOWTIMES, allEntries = true)
+    })
     public MovieResponse updateMovie(Integer id, MovieRequest request) {
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
@@ -42,31 +66,51 @@ public class MovieService {
         movie.setPosterUrl(request.getPosterUrl());
 
         Movie updatedMovie = movieRepository.save(movie);
-        return mapToResponse(updatedMovie);
+        MovieResponse response = mapToResponse(updatedMovie);
+        movieSearchIndex.putAfterCommit(response);
+        return response;
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MOVIES, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.SHOWTIMES_BY_MOVIE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_SHOWTIMES, allEntries = true)
+    })
     public void deleteMovie(Integer id) {
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
+        showtimeSeatMapRepository.deleteByMovieId(id);
         movieRepository.delete(movie);
+        movie.getShowtimes().forEach(showtime -> seatStateEngine.evictAfterCommit(showtime.getId()));
+        movieSearchIndex.removeAfterCommit(id);
+    }
+
+    public MovieSearchResponse searchMovies(String query, String genre, int limit) {
+        return movieSearchIndex.search(query, genre, limit);
     }
 
+    @Transactional(readOnly = true)
     public MovieResponse getMovieById(Integer id) {
         Movie movie = movieRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
         return mapToResponse(movie);
     }
 
+    // Cached listings are read on the primary so a lagging replica never ends up in the cache
+    @Cacheable(cacheNames = CacheConfig.MOVIES, key = "#pageable")
+    @Transactional(readOnly = true)
     public Page<MovieResponse> getAllMovies(Pageable pageable) {
-        return movieRepository.findAll(pageable)
-                .map(this::mapToResponse);
+        return ReadRouting.onPrimary(() -> movieRepository.findAll(pageable)
+                .map(this::mapToResponse));
     }
 
+    @Cacheable(cacheNames = CacheConfig.MOVIES, key = "'all'")
+    @Transactional(readOnly = true)
     public List<MovieResponse> getAllMovies() {
-        return movieRepository.findAll().stream()
+        return ReadRouting.onPrimary(() -> movieRepository.findAll().stream()
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     private MovieResponse mapToResponse(Movie movie) {
@@ -0,0 +1,68 @@
+package com.moviebooking.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Binary seat map, encoded once per seat map version and served as is. Layout (header big-endian):
+ * <pre>
+ *   u8  format (1)
+ *   u16 rows
+ *   u16 seats per row
+ *   u32 total seats
+ *   i64 epoch     } together the seat map version, "epoch.version"
+ *   i64 version   }
+ *   booked bitset: seat i (row-major, "A1" = 0) is bit i % 8 of byte i / 8, as in {@link SeatBits}
+ * </pre>
+ */
+public final class PackedSeatMap {
+    public static final String MEDIA_TYPE = "application/x-packed-seat-map";
+
+    private static final byte FORMAT = 1;
+    private static final int HEADER_BYTES = 1 + 2 + 2 + 4 + 8 + 8;
+
+    private final String version;
+    private final long changeVersion;
+    private final byte[] bytes;
+
+    private PackedSeatMap(String version, long changeVersion, byte[] bytes) {
+        this.version = version;
+        this.changeVersion = changeVersion;
+        this.bytes = bytes;
+    }
+
+    static PackedSeatMap encode(SeatBitmap bitmap, long epoch, long changeVersion) {
+        SeatLayout layout = bitmap.getLayout();
+        int bitsetBytes = (layout.getTotalSeats() + 7) >>> 3;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + ((bitsetBytes + 7) & ~7));
+        buffer.put(FORMAT)
+                .putShort((short) layout.getRows())
+                .putShort((short) layout.getSeatsPerRow())
+                .putInt(layout.getTotalSeats())
+                .putLong(epoch)
+                .putLong(changeVersion);
+
+        // Little-endian words give exactly the byte-wise bit order of SeatBits
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < bitmap.wordCount(); i++) {
+            buffer.putLong(bitmap.wordAt(i));
+        }
+
+        byte[] bytes = new byte[HEADER_BYTES + bitsetBytes];
+        System.arraycopy(buffer.array(), 0, bytes, 0, bytes.length);
+        return new PackedSeatMap(epoch + "." + changeVersion, changeVersion, bytes);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+}
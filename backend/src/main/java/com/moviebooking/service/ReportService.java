@@ -1,81 +1,57 @@
 package com.moviebooking.service;
 
 import com.moviebooking.dto.ReportResponse;
-import com.moviebooking.entity.Reservation;
-import com.moviebooking.repository.ReservationRepository;
 import com.moviebooking.repository.ShowtimeRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
-    @Autowired
-    private ReservationRepository reservationRepository;
+    private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
 
     @Autowired
     private ShowtimeRepository showtimeRepository;
 
-    public ReportResponse generateReports() {
-        List<Reservation> allReservations = reservationRepository.findAllActiveReservations();
-
-        // Total reservations
-        long totalReservations = allReservations.size();
-
-        // Total revenue
-        double totalRevenue = allReservations.stream()
-                .mapToDouble(Reservation::getTotalPrice)
-                .sum();
-
-        // Revenue per movie
-        Map<Integer, List<Reservation>> reservationsByMovie = allReservations.stream()
-                .collect(Collectors.groupingBy(r -> r.getShowtime().getMovie().getId()));
-
-        List<ReportResponse.MovieRevenueResponse> movieRevenues = reservationsByMovie.entrySet().stream()
-                .map(entry -> {
-                    List<Reservation> movieReservations = entry.getValue();
-                    double revenue = movieReservations.stream()
-                            .mapToDouble(Reservation::getTotalPrice)
-                            .sum();
-                    String movieTitle = movieReservations.get(0).getShowtime().getMovie().getTitle();
-
-                    return new ReportResponse.MovieRevenueResponse(
-                            entry.getKey(),
-                            movieTitle,
-                            (long) movieReservations.size(),
-                            revenue
-                    );
-                })
-                .collect(Collectors.toList());
-
-        // Occupancy per showtime
-        List<ReportResponse.ShowtimeOccupancyResponse> showtimeOccupancies = showtimeRepository.findAll().stream()
-                .map(showtime -> {
-                    List<Reservation> showtimeReservations = allReservations.stream()
-                            .filter(r -> r.getShowtime().getId().equals(showtime.getId()))
-                            .collect(Collectors.toList());
-
-                    long bookedSeats = showtimeReservations.stream()
-                            .mapToLong(r -> r.getSeats().size())
-                            .sum();
+    @Autowired
+    private ShowtimeAggregateWriter showtimeAggregateWriter;
 
-                    double occupancyPercentage = showtime.getTotalSeats() > 0
-                            ? (bookedSeats * 100.0) / showtime.getTotalSeats()
-                            : 0.0;
+    // Served from the running aggregates on each showtime, which trail bookings and cancellations by a flush
+    @Timed("report.generate")
+    @Transactional(readOnly = true)
+    public ReportResponse generateReports() {
+        long totalReservations = showtimeRepository.sumReservationCount();
+        double totalRevenue = showtimeRepository.sumRevenue();
 
-                    return new ReportResponse.ShowtimeOccupancyResponse(
-                            showtime.getId(),
-                            showtime.getMovie().getTitle(),
-                            showtime.getTotalSeats(),
-                            (int) bookedSeats,
-                            occupancyPercentage
-                    );
-                })
-                .collect(Collectors.toList());
+        List<ReportResponse.MovieRevenueResponse> movieRevenues = showtimeRepository.findMovieRevenues();
+        List<ReportResponse.ShowtimeOccupancyResponse> showtimeOccupancies = showtimeRepository.findShowtimeOccupancies();
 
         return new ReportResponse(totalReservations, totalRevenue, movieRevenues, showtimeOccupancies);
     }
+
+    /**
+     * Recomputes every showtime aggregate from the seat maps and reservations.
+     *
+     * @return the number of showtimes whose aggregates had drifted
+     */
+    @Scheduled(cron = "${app.reports.reconcile-cron:0 30 3 * * *}")
+    @Timed("report.rebuild")
+    @Transactional
+    public long rebuildAggregates() {
+        // Queued changes are not drift
+        showtimeAggregateWriter.flush();
+        long drifted = showtimeRepository.countDriftedAggregates();
+        showtimeRepository.rebuildAggregates();
+
+        if (drifted > 0) {
+            logger.warn("Reconciled report aggregates for {} showtimes", drifted);
+        }
+        return drifted;
+    }
 }
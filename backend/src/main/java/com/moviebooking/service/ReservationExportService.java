@@ -0,0 +1,149 @@
+package com.moviebooking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.dto.ReservationExportRow;
+import com.moviebooking.dto.ReservationResponse;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes reservations straight from a database cursor to the response, one reservation at a time,
+ * so an export of any size runs in constant memory.
+ */
+@Service
+public class ReservationExportService {
+    private static final String CSV_HEADER = "id,userId,userName,showtimeId,movieTitle,showtimeStart,showtimeEnd," +
+            "seatNumbers,reservationDate,totalPrice,isCancelled";
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public enum Format {
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        CSV("csv", MediaType.parseMediaType("text/csv"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public static Format from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    // Runs on the async request thread, so the transaction (and cursor) is opened here rather than by the controller
+    @Transactional(readOnly = true)
+    public void export(Format format, LocalDateTime from, LocalDateTime to, Integer movieId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<ReservationExportRow> rows = reservationRepository.streamForExport(from, to, movieId, fetchSize)) {
+            Iterator<ReservationExportRow> iterator = rows.iterator();
+            ReservationResponse current = null;
+            while (iterator.hasNext()) {
+                ReservationExportRow row = iterator.next();
+                if (current == null || !current.getId().equals(row.getReservationId())) {
+                    if (current != null) {
+                        write(format, current, writer);
+                    }
+                    current = toResponse(row);
+                }
+                if (row.getSeatNumber() != null) {
+                    current.getSeatNumbers().add(row.getSeatNumber());
+                }
+            }
+            if (current != null) {
+                write(format, current, writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void write(Format format, ReservationResponse reservation, Writer writer) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(reservation));
+        } else {
+            writer.write(String.join(",",
+                    String.valueOf(reservation.getId()),
+                    String.valueOf(reservation.getUserId()),
+                    csv(reservation.getUserName()),
+                    String.valueOf(reservation.getShowtimeId()),
+                    csv(reservation.getMovieTitle()),
+                    String.valueOf(reservation.getShowtimeStart()),
+                    String.valueOf(reservation.getShowtimeEnd()),
+                    String.join(" ", reservation.getSeatNumbers()),
+                    String.valueOf(reservation.getReservationDate()),
+                    String.valueOf(reservation.getTotalPrice()),
+                    String.valueOf(reservation.getIsCancelled())));
+        }
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static ReservationResponse toResponse(ReservationExportRow row) {
+        return new ReservationResponse(
+                row.getReservationId(),
+                row.getUserId(),
+                row.getUserName(),
+                row.getShowtimeId(),
+                row.getMovieTitle(),
+                row.getShowtimeStart(),
+                row.getShowtimeEnd(),
+                new ArrayList<>(),
+                row.getReservationDate(),
+                row.getTotalPrice(),
+                row.getIsCancelled()
+        );
+    }
+}
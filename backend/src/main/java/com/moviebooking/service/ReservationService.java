@@ -1,25 +1,32 @@
 package com.moviebooking.service;
 
+import com.moviebooking.dto.BestAvailableRequest;
+import com.moviebooking.dto.CursorPage;
 import com.moviebooking.dto.ReservationRequest;
 import com.moviebooking.dto.ReservationResponse;
 import com.moviebooking.entity.Reservation;
-import com.moviebooking.entity.Seat;
 import com.moviebooking.entity.Showtime;
 import com.moviebooking.entity.User;
 import com.moviebooking.exception.BadRequestException;
 import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.exception.SeatUnavailableException;
 import com.moviebooking.exception.UnauthorizedException;
 import com.moviebooking.repository.ReservationRepository;
-import com.moviebooking.repository.SeatRepository;
 import com.moviebooking.repository.ShowtimeRepository;
 import com.moviebooking.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class ReservationService {
@@ -30,15 +37,35 @@ public class ReservationService {
     private ShowtimeRepository showtimeRepository;
 
     @Autowired
-    private SeatRepository seatRepository;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private SeatStateEngine seatStateEngine;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private SeatMapWriter seatMapWriter;
+
+    @Autowired
+    private ShowtimeAggregateWriter showtimeAggregateWriter;
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
 
     private static final double SEAT_PRICE = 250.0;
 
-    @Transactional
+    private static final int SEAT_NUMBER_CHUNK_SIZE = 1000;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     public ReservationResponse createReservation(Integer userId, ReservationRequest request) {
+        return bookingMetrics.timeBooking("seats", request.getShowtimeId(),
+                () -> seatMapWriter.execute(request.getShowtimeId(), optimistic -> bookSeats(userId, request, optimistic)));
+    }
+
+    private ReservationResponse bookSeats(Integer userId, ReservationRequest request, boolean optimistic) {
         Showtime showtime = showtimeRepository.findById(request.getShowtimeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + request.getShowtimeId()));
 
@@ -49,40 +76,68 @@ public class ReservationService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        // Use pessimistic locking to prevent double booking
-        List<Seat> seats = seatRepository.findByShowtimeIdAndSeatNumbersForUpdate(
-                request.getShowtimeId(), request.getSeatNumbers());
+        // Resolve contention in memory first; losers fail here without touching the database
+        SeatStateEngine.SeatClaim claim = seatStateEngine.claim(showtime, request.getSeatNumbers());
+        seatStateEngine.releaseOnRollback(claim);
 
-        if (seats.size() != request.getSeatNumbers().size()) {
-            throw new BadRequestException("One or more seats not found");
-        }
+        Reservation savedReservation = bookClaimedSeats(user, showtime, request.getSeatNumbers(), claim, optimistic);
+        return mapToResponse(savedReservation);
+    }
 
-        // Check if any seat is already booked
-        for (Seat seat : seats) {
-            if (seat.getIsBooked()) {
-                throw new BadRequestException("Seat " + seat.getSeatNumber() + " is already booked");
-            }
+    public ReservationResponse createBestAvailableReservation(Integer userId, BestAvailableRequest request) {
+        return bookingMetrics.timeBooking("best_available", request.getShowtimeId(),
+                () -> seatMapWriter.execute(request.getShowtimeId(), optimistic -> bookBestAvailable(userId, request, optimistic)));
+    }
+
+    private ReservationResponse bookBestAvailable(Integer userId, BestAvailableRequest request, boolean optimistic) {
+        Showtime showtime = showtimeRepository.findById(request.getShowtimeId())
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + request.getShowtimeId()));
+
+        if (showtime.getStartTime().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Cannot book seats for past showtimes");
         }
 
-        // Mark seats as booked
-        seats.forEach(seat -> seat.setIsBooked(true));
-        seatRepository.saveAll(seats);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
-        // Create reservation
-        Reservation reservation = new Reservation();
-        reservation.setUser(user);
-        reservation.setShowtime(showtime);
-        reservation.setSeats(seats);
-        reservation.setReservationDate(LocalDateTime.now());
-        reservation.setTotalPrice(SEAT_PRICE * seats.size());
-        reservation.setIsCancelled(false);
+        // Picked and claimed in one step, so the seats cannot go to someone else in between
+        SeatStateEngine.SeatClaim claim = seatStateEngine.claimBestAvailable(showtime, request.getQuantity());
+        seatStateEngine.releaseOnRollback(claim);
 
-        Reservation savedReservation = reservationRepository.save(reservation);
+        Reservation savedReservation = bookClaimedSeats(user, showtime, claim.seatNumbers(), claim, optimistic);
         return mapToResponse(savedReservation);
     }
 
+    // Always pessimistic: the hold is consumed by the first attempt, so there is nothing to retry with
     @Transactional
+    public ReservationResponse confirmHold(String holdId, Integer userId) {
+        SeatHold hold = seatHoldService.takeHold(holdId, userId);
+        if (!hold.getClaim().isValid()) {
+            throw new SeatUnavailableException("The held seats are no longer available, please choose seats again");
+        }
+        seatStateEngine.releaseOnRollback(hold.getClaim());
+
+        Showtime showtime = showtimeRepository.findById(hold.getShowtimeId())
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + hold.getShowtimeId()));
+
+        if (showtime.getStartTime().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Cannot book seats for past showtimes");
+        }
+
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+
+        Reservation savedReservation = bookClaimedSeats(user, showtime, hold.getSeatNumbers(), hold.getClaim(), false);
+        return mapToResponse(savedReservation);
+    }
+
     public ReservationResponse cancelReservation(Integer reservationId, Integer userId) {
+        Integer showtimeId = reservationRepository.findShowtimeIdById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
+        return seatMapWriter.execute(showtimeId, optimistic -> cancelSeats(reservationId, userId, optimistic));
+    }
+
+    private ReservationResponse cancelSeats(Integer reservationId, Integer userId, boolean optimistic) {
         Reservation reservation = reservationRepository.findById(reservationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
 
@@ -101,41 +156,148 @@ public class ReservationService {
         reservation.setIsCancelled(true);
 
         // Release seats
-        reservation.getSeats().forEach(seat -> seat.setIsBooked(false));
-        seatRepository.saveAll(reservation.getSeats());
+        Showtime showtime = reservation.getShowtime();
+        SeatLayout layout = SeatLayout.forShowtime(showtime);
+        int[] indices = reservation.getSeatNumbers().stream()
+                .mapToInt(layout::indexOf)
+                .filter(index -> index >= 0)
+                .toArray();
+        seatMapWriter.write(showtime.getId(), optimistic, bookedBits -> {
+            for (int index : indices) {
+                SeatBits.clear(bookedBits, index);
+            }
+            return bookedBits;
+        });
+
+        showtimeAggregateWriter.addAfterCommit(showtime.getId(),
+                -reservation.getSeatNumbers().size(), -1, -toCents(reservation.getTotalPrice()));
+        seatStateEngine.releaseAfterCommit(showtime.getId(), reservation.getSeatNumbers());
 
         Reservation cancelledReservation = reservationRepository.save(reservation);
         return mapToResponse(cancelledReservation);
     }
 
-    public List<ReservationResponse> getUserReservations(Integer userId) {
-        return reservationRepository.findByUserIdAndIsCancelledFalse(userId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public CursorPage<ReservationResponse> getUserReservations(Integer userId, String cursor, int limit) {
+        return findActivePage(userId, null, null, null, null, cursor, limit);
     }
 
     public List<ReservationResponse> getUserUpcomingReservations(Integer userId) {
-        return reservationRepository.findUpcomingReservationsByUserId(userId, LocalDateTime.now()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return withSeatNumbers(reservationRepository.findUpcomingResponsesByUserId(userId, LocalDateTime.now()));
     }
 
     public ReservationResponse getReservationById(Integer reservationId, Integer userId) {
-        Reservation reservation = reservationRepository.findByIdAndUserId(reservationId, userId)
+        ReservationResponse reservation = reservationRepository.findResponseByIdAndUserId(reservationId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Reservation not found with id: " + reservationId));
-        return mapToResponse(reservation);
+        return withSeatNumbers(List.of(reservation)).get(0);
+    }
+
+    public CursorPage<ReservationResponse> getAllReservations(Integer showtimeId, Integer movieId,
+                                                              LocalDateTime from, LocalDateTime to,
+                                                              String cursor, int limit) {
+        return findActivePage(null, showtimeId, movieId, from, to, cursor, limit);
+    }
+
+    private Reservation bookClaimedSeats(User user, Showtime showtime, List<String> seatNumbers,
+                                         SeatStateEngine.SeatClaim claim, boolean optimistic) {
+        // Write the claim through to the showtime's seat map
+        seatMapWriter.write(showtime.getId(), optimistic, bookedBits -> {
+            int[] conflicts = Arrays.stream(claim.seatIndices())
+                    .filter(index -> SeatBits.isSet(bookedBits, index))
+                    .toArray();
+            if (conflicts.length > 0) {
+                // The seat map disagrees with the bitmap (e.g. booked through another instance); fix just those seats
+                seatStateEngine.markBookedAfterRollback(claim, conflicts);
+                throw new SeatUnavailableException("One or more seats are already booked");
+            }
+            for (int index : claim.seatIndices()) {
+                SeatBits.set(bookedBits, index);
+            }
+            return bookedBits;
+        });
+
+        // Create reservation
+        Reservation reservation = new Reservation();
+        reservation.setUser(user);
+        reservation.setShowtime(showtime);
+        reservation.setSeatNumbers(new ArrayList<>(seatNumbers));
+        reservation.setReservationDate(LocalDateTime.now());
+        reservation.setTotalPrice(SEAT_PRICE * seatNumbers.size());
+        reservation.setIsCancelled(false);
+
+        Reservation savedReservation = reservationRepository.save(reservation);
+        showtimeAggregateWriter.addAfterCommit(showtime.getId(), seatNumbers.size(), 1, toCents(savedReservation.getTotalPrice()));
+        return savedReservation;
+    }
+
+    private CursorPage<ReservationResponse> findActivePage(Integer userId, Integer showtimeId, Integer movieId,
+                                                           LocalDateTime from, LocalDateTime to,
+                                                           String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        LocalDateTime beforeDate = null;
+        Integer beforeId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            beforeDate = LocalDateTime.parse(position[0]);
+            beforeId = Integer.valueOf(position[1]);
+        }
+
+        // Fetch one extra row to know whether another page follows
+        List<ReservationResponse> rows = reservationRepository.findActiveResponsePage(userId, showtimeId, movieId,
+                from, to, beforeDate, beforeId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<ReservationResponse> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            ReservationResponse last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getReservationDate(), last.getId());
+        }
+        return new CursorPage<>(withSeatNumbers(new ArrayList<>(items)), nextCursor, hasMore);
+    }
+
+    private static String encodeCursor(LocalDateTime reservationDate, Integer id) {
+        String position = reservationDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            LocalDateTime.parse(position[0]);
+            Integer.parseInt(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    // One extra query per chunk of listed reservations instead of one per reservation
+    private List<ReservationResponse> withSeatNumbers(List<ReservationResponse> reservations) {
+        Map<Integer, ReservationResponse> byId = new HashMap<>();
+        reservations.forEach(reservation -> byId.put(reservation.getId(), reservation));
+
+        List<Integer> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += SEAT_NUMBER_CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + SEAT_NUMBER_CHUNK_SIZE, ids.size()));
+            for (ReservationRepository.ReservedSeat seat : reservationRepository.findSeatNumbersByReservationIds(chunk)) {
+                byId.get(seat.getReservationId()).getSeatNumbers().add(seat.getSeatNumber());
+            }
+        }
+        return reservations;
     }
 
-    public List<ReservationResponse> getAllReservations() {
-        return reservationRepository.findAllActiveReservations().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
     }
 
     private ReservationResponse mapToResponse(Reservation reservation) {
-        List<String> seatNumbers = reservation.getSeats().stream()
-                .map(Seat::getSeatNumber)
-                .collect(Collectors.toList());
+        List<String> seatNumbers = new ArrayList<>(reservation.getSeatNumbers());
 
         return new ReservationResponse(
                 reservation.getId(),
@@ -0,0 +1,77 @@
+package com.moviebooking.service;
+
+/**
+ * Finds the best block of adjacent free seats in a {@link SeatBitmap}: the one whose centre is
+ * closest to the centre of the hall. Rows are visited outwards from the middle row and skipped
+ * when their longest free run is too short, so a search only scans rows that can fit the group.
+ */
+final class SeatAllocator {
+    private SeatAllocator() {
+    }
+
+    /**
+     * Returns the seat indices of the best free block of the given size in ascending order, or null
+     * if no row has that many adjacent free seats.
+     */
+    static int[] findBest(SeatBitmap bitmap, int quantity) {
+        SeatLayout layout = bitmap.getLayout();
+        int rows = layout.getRows();
+        double centreRow = (rows - 1) / 2.0;
+        double centreCol = (layout.getSeatsPerRow() - 1) / 2.0;
+        // Block start that puts the block's centre on the hall's centre column
+        int idealStart = (int) Math.round(centreCol - (quantity - 1) / 2.0);
+
+        double bestScore = Double.MAX_VALUE;
+        int bestFirst = -1;
+        for (int step = 0; step < rows; step++) {
+            // Middle row first, then alternately one row behind and one in front
+            int offset = (step + 1) / 2;
+            int row = (int) Math.floor(centreRow) + ((step & 1) == 1 ? offset : -offset);
+            if (row < 0 || row >= rows) {
+                continue;
+            }
+            double rowDistance = row - centreRow;
+            if (rowDistance * rowDistance >= bestScore) {
+                // Rows only get further away from here on
+                break;
+            }
+            if (bitmap.longestFreeRun(row) < quantity) {
+                continue;
+            }
+
+            int rowStart = layout.indexOf(row, 0);
+            int width = bitmap.rowWidth(row);
+            int col = 0;
+            while (col < width) {
+                if (bitmap.isTaken(rowStart + col)) {
+                    col++;
+                    continue;
+                }
+                int runStart = col;
+                while (col < width && !bitmap.isTaken(rowStart + col)) {
+                    col++;
+                }
+                if (col - runStart < quantity) {
+                    continue;
+                }
+
+                int start = Math.max(runStart, Math.min(idealStart, col - quantity));
+                double colDistance = start + (quantity - 1) / 2.0 - centreCol;
+                double score = rowDistance * rowDistance + colDistance * colDistance;
+                if (score < bestScore) {
+                    bestScore = score;
+                    bestFirst = rowStart + start;
+                }
+            }
+        }
+
+        if (bestFirst < 0) {
+            return null;
+        }
+        int[] indices = new int[quantity];
+        for (int i = 0; i < quantity; i++) {
+            indices[i] = bestFirst + i;
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,211 @@
+package com.moviebooking.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory seat state of a single showtime: one bit per seat, set when the seat is taken.
+ * Claims and releases are lock-free compare-and-set operations on 64-seat words. Alongside the
+ * bits it keeps the longest free run of each row, so group allocation can skip full rows.
+ */
+public class SeatBitmap {
+    private final Integer showtimeId;
+    private final SeatLayout layout;
+    private final AtomicLongArray words;
+    private final SeatChangeLog changes;
+    private final AtomicIntegerArray longestFreeRuns;
+
+    // Last binary encoding, reused until the change log moves on
+    private volatile PackedSeatMap packed;
+
+    SeatBitmap(Integer showtimeId, SeatLayout layout, SeatChangeLog changes) {
+        this.showtimeId = showtimeId;
+        this.layout = layout;
+        this.words = new AtomicLongArray((layout.getTotalSeats() + 63) >>> 6);
+        this.changes = changes;
+        this.longestFreeRuns = new AtomicIntegerArray(layout.getRows());
+        for (int row = 0; row < layout.getRows(); row++) {
+            longestFreeRuns.set(row, rowWidth(row));
+        }
+    }
+
+    public Integer getShowtimeId() {
+        return showtimeId;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    SeatChangeLog getChanges() {
+        return changes;
+    }
+
+    PackedSeatMap getPacked() {
+        long version = changes.getVersion();
+        PackedSeatMap current = packed;
+        if (current == null || current.getChangeVersion() != version) {
+            // Bits are read after the version, so they are never older than the version they are stored under
+            current = PackedSeatMap.encode(this, changes.getEpoch(), version);
+            packed = current;
+        }
+        return current;
+    }
+
+    int wordCount() {
+        return words.length();
+    }
+
+    long wordAt(int i) {
+        return words.get(i);
+    }
+
+    public boolean isTaken(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    public int takenCount() {
+        int count = 0;
+        for (int i = 0; i < words.length(); i++) {
+            count += Long.bitCount(words.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * Number of seats in the row; the last row of a layout can be short.
+     */
+    int rowWidth(int row) {
+        int first = layout.indexOf(row, 0);
+        return Math.max(0, Math.min(layout.getSeatsPerRow(), layout.getTotalSeats() - first));
+    }
+
+    /**
+     * Longest run of adjacent free seats in the row as of the last refresh. Only a hint: the seats
+     * themselves must still be claimed with {@link #tryClaim}.
+     */
+    int longestFreeRun(int row) {
+        return longestFreeRuns.get(row);
+    }
+
+    /**
+     * Recomputes the longest free run of every row holding one of the given seats.
+     *
+     * @param indices seat indices in ascending order
+     */
+    void refreshFreeRuns(int[] indices) {
+        int lastRow = -1;
+        for (int index : indices) {
+            int row = index / layout.getSeatsPerRow();
+            if (row != lastRow) {
+                refreshFreeRun(row);
+                lastRow = row;
+            }
+        }
+    }
+
+    void refreshAllFreeRuns() {
+        for (int row = 0; row < layout.getRows(); row++) {
+            refreshFreeRun(row);
+        }
+    }
+
+    // Concurrent refreshes of a row can finish out of order, so repeat until the row's bits held
+    // still while the run was computed; whoever changes them next refreshes again after us
+    private void refreshFreeRun(int row) {
+        int first = layout.indexOf(row, 0);
+        int width = rowWidth(row);
+        if (width == 0) {
+            return;
+        }
+        int firstWord = first >>> 6;
+        int lastWord = (first + width - 1) >>> 6;
+        long[] snapshot = new long[lastWord - firstWord + 1];
+
+        boolean changed;
+        do {
+            for (int w = 0; w < snapshot.length; w++) {
+                snapshot[w] = words.get(firstWord + w);
+            }
+
+            int longest = 0;
+            int run = 0;
+            for (int index = first; index < first + width; index++) {
+                if ((snapshot[(index >>> 6) - firstWord] & (1L << index)) != 0) {
+                    run = 0;
+                } else if (++run > longest) {
+                    longest = run;
+                }
+            }
+            longestFreeRuns.set(row, longest);
+
+            changed = false;
+            for (int w = 0; w < snapshot.length && !changed; w++) {
+                changed = words.get(firstWord + w) != snapshot[w];
+            }
+        } while (changed);
+    }
+
+    void markTaken(int index) {
+        words.getAndUpdate(index >>> 6, word -> word | (1L << index));
+    }
+
+    /**
+     * Atomically claims all of the given seats, or none of them.
+     *
+     * @param indices seat indices in ascending order
+     * @return -1 if every seat was claimed, otherwise the index of a seat that is already taken
+     */
+    int tryClaim(int[] indices) {
+        int start = 0;
+        while (start < indices.length) {
+            int word = indices[start] >>> 6;
+            int end = start;
+            long mask = 0L;
+            while (end < indices.length && (indices[end] >>> 6) == word) {
+                mask |= 1L << indices[end];
+                end++;
+            }
+
+            while (true) {
+                long current = words.get(word);
+                long conflict = current & mask;
+                if (conflict != 0) {
+                    // Undo the words claimed so far so the claim stays all-or-nothing; see claimedBefore
+                    release(indices, 0, start);
+                    return (word << 6) + Long.numberOfTrailingZeros(conflict);
+                }
+                if (words.compareAndSet(word, current, current | mask)) {
+                    break;
+                }
+            }
+            start = end;
+        }
+        return -1;
+    }
+
+    /**
+     * The seats a failed {@link #tryClaim} held for a moment before it hit the conflict and let them go
+     * again: those in words before the conflicting seat's. Readers may have seen them taken meanwhile.
+     */
+    static int[] claimedBefore(int[] indices, int conflict) {
+        int conflictWord = conflict >>> 6;
+        int count = 0;
+        while (count < indices.length && (indices[count] >>> 6) < conflictWord) {
+            count++;
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    void release(int[] indices) {
+        release(indices, 0, indices.length);
+    }
+
+    private void release(int[] indices, int from, int to) {
+        for (int i = from; i < to; i++) {
+            long bit = 1L << indices[i];
+            words.getAndUpdate(indices[i] >>> 6, word -> word & ~bit);
+        }
+    }
+}
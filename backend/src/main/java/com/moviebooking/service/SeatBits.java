@@ -0,0 +1,36 @@
+package com.moviebooking.service;
+
+/**
+ * Helpers for the booked-seat bitset stored in {@link com.moviebooking.entity.ShowtimeSeatMap}:
+ * bit {@code i} lives in byte {@code i / 8} at position {@code i % 8}.
+ */
+public final class SeatBits {
+    private SeatBits() {
+    }
+
+    public static byte[] empty(int totalSeats) {
+        return new byte[(totalSeats + 7) >>> 3];
+    }
+
+    public static boolean isSet(byte[] bits, int index) {
+        int slot = index >>> 3;
+        return slot < bits.length && (bits[slot] & (1 << (index & 7))) != 0;
+    }
+
+    public static void set(byte[] bits, int index) {
+        bits[index >>> 3] |= (byte) (1 << (index & 7));
+    }
+
+    public static void clear(byte[] bits, int index) {
+        bits[index >>> 3] &= (byte) ~(1 << (index & 7));
+    }
+
+    public static boolean isEmpty(byte[] bits) {
+        for (byte b : bits) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,19 @@
+package com.moviebooking.service;
+
+/**
+ * Notified by {@link SeatStateEngine} whenever seats of a showtime change state. Called on the thread
+ * that made the change, while the showtime's change log is locked, so implementations must hand off
+ * any real work. Changes of one showtime arrive in version order.
+ */
+public interface SeatChangeListener {
+    /**
+     * @param indices seat indices in the given layout; must not be modified
+     * @param version seat map version the change produced, as used for ETags and changes-since queries
+     */
+    void seatsChanged(Integer showtimeId, SeatLayout layout, int[] indices, boolean booked, String version);
+
+    /**
+     * The showtime's seat state was dropped and will be reloaded, e.g. after re-seating or deletion.
+     */
+    void seatMapReset(Integer showtimeId);
+}
@@ -0,0 +1,69 @@
+package com.moviebooking.service;
+
+import java.util.BitSet;
+
+/**
+ * Version history of a {@link SeatBitmap}: every change bumps the version and is kept in a fixed-size
+ * ring, so callers holding a recent version can be told which seats flipped since then.
+ * The epoch identifies this particular history; it changes whenever the bitmap is reloaded.
+ */
+final class SeatChangeLog {
+    private final long epoch;
+    private final int[][] ring;
+    private long version;
+
+    SeatChangeLog(long epoch, int capacity) {
+        this.epoch = epoch;
+        this.ring = new int[capacity][];
+    }
+
+    long getEpoch() {
+        return epoch;
+    }
+
+    synchronized long getVersion() {
+        return version;
+    }
+
+    synchronized long record(int[] indices) {
+        version++;
+        ring[(int) (version % ring.length)] = indices;
+        return version;
+    }
+
+    /**
+     * Returns the seats changed after the given version, or null if that version is unknown or has
+     * already dropped out of the ring.
+     */
+    synchronized Delta changedSince(long since) {
+        if (since > version || version - since > ring.length) {
+            return null;
+        }
+
+        BitSet changed = new BitSet();
+        for (long v = since + 1; v <= version; v++) {
+            for (int index : ring[(int) (v % ring.length)]) {
+                changed.set(index);
+            }
+        }
+        return new Delta(version, changed.stream().toArray());
+    }
+
+    static final class Delta {
+        private final long version;
+        private final int[] seatIndices;
+
+        private Delta(long version, int[] seatIndices) {
+            this.version = version;
+            this.seatIndices = seatIndices;
+        }
+
+        long getVersion() {
+            return version;
+        }
+
+        int[] getSeatIndices() {
+            return seatIndices;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.moviebooking.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Seats claimed in the {@link SeatStateEngine} for a user who has not checked out yet.
+ * Holds live only in memory; nothing is written to the database until they are confirmed.
+ */
+public class SeatHold {
+    private final String id;
+    private final Integer userId;
+    private final Integer showtimeId;
+    private final List<String> seatNumbers;
+    private final SeatStateEngine.SeatClaim claim;
+    private final LocalDateTime expiresAt;
+    private final long expiryTick;
+
+    SeatHold(String id, Integer userId, Integer showtimeId, List<String> seatNumbers,
+             SeatStateEngine.SeatClaim claim, LocalDateTime expiresAt, long expiryTick) {
+        this.id = id;
+        this.userId = userId;
+        this.showtimeId = showtimeId;
+        this.seatNumbers = seatNumbers;
+        this.claim = claim;
+        this.expiresAt = expiresAt;
+        this.expiryTick = expiryTick;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public Integer getShowtimeId() {
+        return showtimeId;
+    }
+
+    public List<String> getSeatNumbers() {
+        return seatNumbers;
+    }
+
+    public SeatStateEngine.SeatClaim getClaim() {
+        return claim;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    long getExpiryTick() {
+        return expiryTick;
+    }
+}
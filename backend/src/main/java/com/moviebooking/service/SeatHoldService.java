@@ -0,0 +1,212 @@
+package com.moviebooking.service;
+
+import com.moviebooking.config.ReadRouting;
+import com.moviebooking.dto.ReservationRequest;
+import com.moviebooking.dto.SeatHoldResponse;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.exception.UnauthorizedException;
+import com.moviebooking.repository.ShowtimeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+@Service
+public class SeatHoldService {
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+
+    // One-second ticks; holds longer than the wheel simply survive extra rotations
+    private static final int WHEEL_SLOTS = 1024;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private SeatStateEngine seatStateEngine;
+
+    @Value("${app.booking.hold-ttl-minutes:10}")
+    private long holdTtlMinutes;
+
+    @Value("${app.booking.max-holds-per-user:5}")
+    private int maxHoldsPerUser;
+
+    @Value("${app.booking.max-held-seats-per-showtime:10}")
+    private int maxHeldSeatsPerShowtime;
+
+    private final ConcurrentMap<String, SeatHold> holds = new ConcurrentHashMap<>();
+
+    // Each user's active holds, for the limits
+    private final ConcurrentMap<Integer, List<SeatHold>> holdsByUser = new ConcurrentHashMap<>();
+
+    private final List<Queue<SeatHold>> wheel = newWheel();
+
+    private long lastSweptTick = currentTick();
+
+    @Transactional(readOnly = true)
+    public SeatHoldResponse holdSeats(Integer userId, ReservationRequest request) {
+        // The first query picks the transaction's connection; the claim below may load seat state from it
+        Showtime showtime = ReadRouting.onPrimary(() -> showtimeRepository.findById(request.getShowtimeId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + request.getShowtimeId()));
+
+        if (showtime.getStartTime().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Cannot hold seats for past showtimes");
+        }
+
+        if (request.getSeatNumbers().size() > maxHeldSeatsPerShowtime) {
+            throw new BadRequestException("You can hold at most " + maxHeldSeatsPerShowtime + " seats per showtime");
+        }
+
+        SeatStateEngine.SeatClaim claim = seatStateEngine.claim(showtime, request.getSeatNumbers());
+
+        long ttlSeconds = holdTtlMinutes * 60;
+        SeatHold hold = new SeatHold(
+                UUID.randomUUID().toString(),
+                userId,
+                showtime.getId(),
+                List.copyOf(request.getSeatNumbers()),
+                claim,
+                LocalDateTime.now().plusSeconds(ttlSeconds),
+                currentTick() + ttlSeconds
+        );
+
+        try {
+            holdsByUser.compute(userId, (id, userHolds) -> withinLimits(userHolds, hold));
+        } catch (BadRequestException e) {
+            claim.release();
+            throw e;
+        }
+
+        // Pinned so the hold survives the showtime's seat state being reloaded
+        seatStateEngine.pin(claim);
+        holds.put(hold.getId(), hold);
+        wheel.get(slotOf(hold.getExpiryTick())).add(hold);
+        return mapToResponse(hold);
+    }
+
+    /**
+     * Removes the hold so the caller owns its claimed seats, e.g. to confirm it into a reservation.
+     */
+    public SeatHold takeHold(String holdId, Integer userId) {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null) {
+            throw new ResourceNotFoundException("Hold not found or expired: " + holdId);
+        }
+
+        if (!hold.getUserId().equals(userId)) {
+            throw new UnauthorizedException("You can only use your own holds");
+        }
+
+        // Lost the race against the sweeper or a concurrent confirm
+        if (!holds.remove(holdId, hold)) {
+            throw new ResourceNotFoundException("Hold not found or expired: " + holdId);
+        }
+        forget(hold);
+        seatStateEngine.unpin(hold.getClaim());
+        return hold;
+    }
+
+    public void releaseHold(String holdId, Integer userId) {
+        takeHold(holdId, userId).getClaim().release();
+    }
+
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void expireHolds() {
+        long now = currentTick();
+        long from = Math.max(lastSweptTick + 1, now - WHEEL_SLOTS + 1);
+        int expired = 0;
+
+        for (long tick = from; tick <= now; tick++) {
+            Queue<SeatHold> slot = wheel.get(slotOf(tick));
+            // Only drain what is there now; holds due in a later rotation go back to the tail
+            for (int pending = slot.size(); pending > 0; pending--) {
+                SeatHold hold = slot.poll();
+                if (hold == null) {
+                    break;
+                }
+                if (hold.getExpiryTick() > now) {
+                    slot.add(hold);
+                } else if (holds.remove(hold.getId(), hold)) {
+                    forget(hold);
+                    hold.getClaim().release();
+                    expired++;
+                }
+            }
+        }
+        lastSweptTick = now;
+
+        if (expired > 0) {
+            logger.debug("Released {} expired seat holds", expired);
+        }
+    }
+
+    private List<SeatHold> withinLimits(List<SeatHold> userHolds, SeatHold hold) {
+        List<SeatHold> current = userHolds != null ? userHolds : List.of();
+        if (current.size() >= maxHoldsPerUser) {
+            throw new BadRequestException("You can have at most " + maxHoldsPerUser + " active holds");
+        }
+        int heldSeats = hold.getSeatNumbers().size();
+        for (SeatHold other : current) {
+            if (other.getShowtimeId().equals(hold.getShowtimeId())) {
+                heldSeats += other.getSeatNumbers().size();
+            }
+        }
+        if (heldSeats > maxHeldSeatsPerShowtime) {
+            throw new BadRequestException("You can hold at most " + maxHeldSeatsPerShowtime + " seats per showtime");
+        }
+
+        List<SeatHold> updated = new ArrayList<>(current);
+        updated.add(hold);
+        return updated;
+    }
+
+    private void forget(SeatHold hold) {
+        holdsByUser.computeIfPresent(hold.getUserId(), (id, userHolds) -> {
+            List<SeatHold> remaining = new ArrayList<>(userHolds);
+            remaining.remove(hold);
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
+    private SeatHoldResponse mapToResponse(SeatHold hold) {
+        return new SeatHoldResponse(
+                hold.getId(),
+                hold.getShowtimeId(),
+                hold.getSeatNumbers(),
+                hold.getExpiresAt()
+        );
+    }
+
+    private static int slotOf(long tick) {
+        return (int) (tick & (WHEEL_SLOTS - 1));
+    }
+
+    private static long currentTick() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static List<Queue<SeatHold>> newWheel() {
+        List<Queue<SeatHold>> slots = new ArrayList<>(WHEEL_SLOTS);
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            slots.add(new ConcurrentLinkedQueue<>());
+        }
+        return List.copyOf(slots);
+    }
+}
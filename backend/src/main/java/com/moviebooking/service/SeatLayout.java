@@ -0,0 +1,121 @@
+package com.moviebooking.service;
+
+import com.moviebooking.entity.Auditorium;
+import com.moviebooking.entity.Showtime;
+
+/**
+ * Row/column grid used to number the seats of a showtime. Seats are laid out row by row
+ * ("A1", "A2", ... "B1", ...) and each seat has a stable zero-based index in that order.
+ */
+public final class SeatLayout {
+    // Rows are lettered A-Z
+    public static final int MAX_ROWS = 26;
+    // The most a seat map's booked-seat bitset can hold
+    public static final int MAX_SEATS = 65536;
+
+    private final int totalSeats;
+    private final int rows;
+    private final int seatsPerRow;
+
+    private SeatLayout(int totalSeats, int rows, int seatsPerRow) {
+        this.totalSeats = totalSeats;
+        this.rows = rows;
+        this.seatsPerRow = seatsPerRow;
+    }
+
+    public static SeatLayout forTotalSeats(int totalSeats) {
+        return forRows(totalSeats, rowsFor(totalSeats));
+    }
+
+    /**
+     * Rows of the grid for a seat count: roughly square, but halls too big for 26 rows get longer rows
+     * instead.
+     */
+    public static int rowsFor(int totalSeats) {
+        return Math.min(MAX_ROWS, squareRows(totalSeats));
+    }
+
+    public static SeatLayout forAuditorium(Auditorium auditorium) {
+        return new SeatLayout(auditorium.getRowCount() * auditorium.getSeatsPerRow(),
+                auditorium.getRowCount(), auditorium.getSeatsPerRow());
+    }
+
+    public static SeatLayout forShowtime(Showtime showtime) {
+        if (showtime.getAuditorium() != null) {
+            return forAuditorium(showtime.getAuditorium());
+        }
+        // Showtimes from before the row limit keep their square grid, rows past Z included
+        int rows = showtime.getSeatRows() != null ? showtime.getSeatRows() : squareRows(showtime.getTotalSeats());
+        return forRows(showtime.getTotalSeats(), rows);
+    }
+
+    private static SeatLayout forRows(int totalSeats, int rows) {
+        int seatsPerRow = (int) Math.ceil((double) totalSeats / rows);
+        return new SeatLayout(totalSeats, rows, seatsPerRow);
+    }
+
+    private static int squareRows(int totalSeats) {
+        return (int) Math.ceil(Math.sqrt(totalSeats));
+    }
+
+    public int getTotalSeats() {
+        return totalSeats;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int indexOf(int row, int col) {
+        return row * seatsPerRow + col;
+    }
+
+    /**
+     * Returns the index of the given seat number, or -1 if it is not part of this layout.
+     */
+    public int indexOf(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return -1;
+        }
+
+        int row = seatNumber.charAt(0) - 'A';
+        int col;
+        try {
+            col = Integer.parseInt(seatNumber.substring(1)) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+
+        if (row < 0 || row >= rows || col < 0 || col >= seatsPerRow) {
+            return -1;
+        }
+
+        int index = indexOf(row, col);
+        return index < totalSeats ? index : -1;
+    }
+
+    public String seatNumberAt(int index) {
+        char rowLetter = (char) ('A' + index / seatsPerRow);
+        return rowLetter + String.valueOf(index % seatsPerRow + 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SeatLayout other)) {
+            return false;
+        }
+        return totalSeats == other.totalSeats && rows == other.rows && seatsPerRow == other.seatsPerRow;
+    }
+
+    @Override
+    public int hashCode() {
+        return (totalSeats * 31 + rows) * 31 + seatsPerRow;
+    }
+}
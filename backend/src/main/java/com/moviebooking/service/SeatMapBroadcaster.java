@@ -0,0 +1,380 @@
+package com.moviebooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.moviebooking.dto.SeatResponse;
+import com.moviebooking.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes seat map changes to Server-Sent Event watchers. Each showtime with watchers has one channel:
+ * engine changes are queued on it and a shared pool drains each channel in order, encoding every event
+ * once and handing it to each watcher's own outbound queue. A second pool writes those queues to the
+ * watchers, so a slow client only holds up itself. A watcher that falls more than
+ * {@code app.seats.stream-max-pending} events behind, or whose write hangs for
+ * {@code app.seats.stream-send-timeout-ms}, is dropped; its EventSource reconnects and starts over from
+ * a snapshot. Watchers never cause database reads beyond the snapshot they receive when they subscribe.
+ */
+@Component
+public class SeatMapBroadcaster implements SeatChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapBroadcaster.class);
+
+    @Autowired
+    private SeatStateEngine seatStateEngine;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.seats.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${app.seats.stream-threads:4}")
+    private int streamThreads;
+
+    @Value("${app.seats.stream-send-threads:16}")
+    private int sendThreads;
+
+    @Value("${app.seats.stream-max-pending:64}")
+    private int maxPending;
+
+    @Value("${app.seats.stream-send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final ConcurrentMap<Integer, Channel> channels = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        executor = newPool(streamThreads, "seat-stream-");
+        sender = newPool(sendThreads, "seat-stream-send-");
+        seatStateEngine.addListener(this);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        sender.shutdownNow();
+        channels.values().forEach(channel -> channel.watchers.forEach(watcher -> watcher.emitter.complete()));
+    }
+
+    /**
+     * Opens a stream that starts with a full "snapshot" of the seat map ({@code version} and {@code seats}),
+     * followed by "booked" and "released" events with the version they produced, the seats' new state and
+     * the seat numbers that changed. Each event's version follows the previous one; a client that sees a gap
+     * missed a change and should reopen the stream, and one that sees a version its snapshot already covers
+     * can ignore the event.
+     */
+    public SseEmitter subscribe(Integer showtimeId) {
+        // Fail with a 404 up front rather than on the stream
+        seatService.getSeatsByShowtimeId(showtimeId);
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Channel channel = channels.compute(showtimeId, (id, existing) -> {
+            Channel target = existing != null ? existing : new Channel(id);
+            target.subscribers.incrementAndGet();
+            // Joining through the queue keeps the snapshot in order with the deltas around it
+            target.tasks.add(() -> target.join(emitter));
+            return target;
+        });
+
+        // Completion follows a timeout or error, so only the first callback counts
+        AtomicBoolean left = new AtomicBoolean();
+        Runnable leave = () -> {
+            if (left.compareAndSet(false, true)) {
+                channel.leave(emitter);
+            }
+        };
+        emitter.onCompletion(leave);
+        emitter.onTimeout(leave);
+        emitter.onError(error -> leave.run());
+        schedule(channel);
+        return emitter;
+    }
+
+    @Override
+    public void seatsChanged(Integer showtimeId, SeatLayout layout, int[] indices, boolean booked, String version) {
+        Channel channel = channels.get(showtimeId);
+        if (channel == null) {
+            return;
+        }
+        channel.tasks.add(() -> channel.publishChange(layout, indices, booked, version));
+        schedule(channel);
+    }
+
+    @Override
+    public void seatMapReset(Integer showtimeId) {
+        Channel channel = channels.get(showtimeId);
+        if (channel == null) {
+            return;
+        }
+        channel.tasks.add(channel::publishSnapshot);
+        schedule(channel);
+    }
+
+    // Keeps proxies from timing out idle streams and weeds out watchers that went away or stopped reading
+    @Scheduled(fixedDelayString = "${app.seats.stream-heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Channel channel : channels.values()) {
+            channel.tasks.add(channel::heartbeat);
+            schedule(channel);
+        }
+    }
+
+    public int getWatcherCount() {
+        return channels.values().stream().mapToInt(channel -> channel.watchers.size()).sum();
+    }
+
+    private void schedule(Channel channel) {
+        if (channel.scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(channel::drain);
+            } catch (RejectedExecutionException e) {
+                channel.scheduled.set(false);
+            }
+        }
+    }
+
+    private static ExecutorService newPool(int threads, String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final class Channel {
+        private final Integer showtimeId;
+        private final List<Watcher> watchers = new CopyOnWriteArrayList<>();
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicInteger subscribers = new AtomicInteger();
+
+        // Encoded snapshot, reused by watchers joining until the next change; only touched by drain()
+        private Set<ResponseBodyEmitter.DataWithMediaType> snapshot;
+
+        private Channel(Integer showtimeId) {
+            this.showtimeId = showtimeId;
+        }
+
+        private void drain() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.warn("Seat stream task failed for showtime {}", showtimeId, e);
+                }
+            }
+            scheduled.set(false);
+            // A task queued between the last poll and the reset would otherwise wait for the next one
+            if (!tasks.isEmpty()) {
+                schedule(this);
+            }
+        }
+
+        private void join(SseEmitter emitter) {
+            Watcher watcher = new Watcher(emitter);
+            Set<ResponseBodyEmitter.DataWithMediaType> event = currentSnapshot();
+            if (event == null) {
+                watcher.close();
+                return;
+            }
+            if (watcher.offer(event)) {
+                watchers.add(watcher);
+            }
+        }
+
+        private void publishChange(SeatLayout layout, int[] indices, boolean booked, String version) {
+            snapshot = null;
+            if (watchers.isEmpty()) {
+                return;
+            }
+            List<String> seatNumbers = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                seatNumbers.add(layout.seatNumberAt(index));
+            }
+            broadcast(encode(booked ? "booked" : "released",
+                    Map.of("version", version, "booked", booked, "seats", seatNumbers)));
+        }
+
+        private void publishSnapshot() {
+            snapshot = null;
+            if (watchers.isEmpty()) {
+                return;
+            }
+            Set<ResponseBodyEmitter.DataWithMediaType> event = currentSnapshot();
+            if (event == null) {
+                watchers.forEach(Watcher::close);
+                return;
+            }
+            broadcast(event);
+        }
+
+        private void heartbeat() {
+            long now = System.nanoTime();
+            for (Watcher watcher : watchers) {
+                if (watcher.isStuck(now)) {
+                    watchers.remove(watcher);
+                    watcher.close();
+                }
+            }
+            broadcast(SseEmitter.event().comment("keep-alive").build());
+        }
+
+        private Set<ResponseBodyEmitter.DataWithMediaType> currentSnapshot() {
+            if (snapshot == null) {
+                try {
+                    // Version first: the seats may be newer than it, and the deltas that follow set state outright
+                    String version = seatService.getSeatMapVersion(showtimeId);
+                    List<SeatResponse> seats = seatService.getSeatsByShowtimeId(showtimeId);
+                    snapshot = encode("snapshot", Map.of("version", version, "seats", seats));
+                } catch (ResourceNotFoundException e) {
+                    // The showtime was deleted
+                    return null;
+                }
+            }
+            return snapshot;
+        }
+
+        private void broadcast(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            for (Watcher watcher : watchers) {
+                if (!watcher.offer(event)) {
+                    watchers.remove(watcher);
+                }
+            }
+        }
+
+        private void leave(SseEmitter emitter) {
+            watchers.removeIf(watcher -> watcher.emitter == emitter);
+            subscribers.decrementAndGet();
+            channels.computeIfPresent(showtimeId, (id, channel) -> channel.subscribers.get() <= 0 ? null : channel);
+        }
+    }
+
+    /**
+     * One watcher's outbound events, written in order by the sender pool. Completing an emitter waits for a
+     * write in progress, so only the sending thread ever completes it; others just mark the watcher closed.
+     */
+    private final class Watcher {
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+        // When the write in progress started, or 0 between writes
+        private volatile long sendingSince;
+
+        private Watcher(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private boolean offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return false;
+            }
+            if (pendingCount.incrementAndGet() > maxPending) {
+                // Too far behind to catch up; the client reconnects and starts from a fresh snapshot
+                close();
+                return false;
+            }
+            pending.add(event);
+            schedule();
+            return true;
+        }
+
+        private boolean isStuck(long now) {
+            long since = sendingSince;
+            return since != 0 && now - since > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        }
+
+        private void close() {
+            closed = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            while (!closed && (event = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                sendingSince = System.nanoTime();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    closed = true;
+                    if (completed.compareAndSet(false, true)) {
+                        emitter.completeWithError(e);
+                    }
+                } finally {
+                    sendingSince = 0;
+                }
+            }
+            if (closed) {
+                pending.clear();
+                if (completed.compareAndSet(false, true)) {
+                    emitter.complete();
+                }
+            }
+            scheduled.set(false);
+            // Events or a close that arrived after the checks above would otherwise wait for the next offer
+            if (closed ? !completed.get() : !pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> encode(String name, Object data) {
+        try {
+            return SseEmitter.event()
+                    .name(name)
+                    .data(objectMapper.writeValueAsString(data), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode seat event", e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.moviebooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.moviebooking.entity.ShowtimeSeatMap;
+import com.moviebooking.exception.ConflictException;
+import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.repository.ShowtimeSeatMapRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Writes booked-seat changes to a showtime's seat map row, either under a row lock held for the whole
+ * transaction or optimistically against the row version. Optimistic attempts run in their own
+ * transaction so a conflict can be retried from a fresh read, a few times with jittered backoff,
+ * before failing fast. In adaptive mode a showtime stays optimistic until it sees contention.
+ */
+@Component
+public class SeatMapWriter {
+    @Autowired
+    private ShowtimeSeatMapRepository showtimeSeatMapRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @Value("${app.booking.lock-mode:pessimistic}")
+    private String lockMode;
+
+    @Value("${app.booking.optimistic-max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.booking.optimistic-backoff-ms:10}")
+    private long backoffMs;
+
+    @Value("${app.booking.optimistic-max-in-flight:2}")
+    private int maxInFlight;
+
+    @Value("${app.booking.hot-showtime-seconds:60}")
+    private long hotShowtimeSeconds;
+
+    private BookingLockMode mode;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Cache<Integer, Contention> contention;
+
+    @PostConstruct
+    void init() {
+        mode = BookingLockMode.valueOf(lockMode.trim().toUpperCase(Locale.ROOT));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        contention = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .maximumSize(10000)
+                .build();
+    }
+
+    public interface Attempt<T> {
+        T run(boolean optimistic);
+    }
+
+    /**
+     * Runs a seat map writing transaction for the showtime, retrying optimistic conflicts. Joins the
+     * caller's transaction, always pessimistically, if one is already active.
+     */
+    public <T> T execute(Integer showtimeId, Attempt<T> attempt) {
+        if (mode == BookingLockMode.PESSIMISTIC || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> attempt.run(false));
+        }
+
+        Contention state = contention.get(showtimeId, id -> new Contention());
+        int othersInFlight = state.inFlight.getAndIncrement();
+        try {
+            if (mode == BookingLockMode.ADAPTIVE
+                    && (othersInFlight >= maxInFlight || System.currentTimeMillis() < state.hotUntil)) {
+                return transactionTemplate.execute(status -> attempt.run(false));
+            }
+
+            for (int attemptNumber = 1; ; attemptNumber++) {
+                try {
+                    return transactionTemplate.execute(status -> attempt.run(true));
+                } catch (SeatMapConflictException e) {
+                    bookingMetrics.recordVersionConflict(showtimeId);
+                    state.hotUntil = System.currentTimeMillis() + hotShowtimeSeconds * 1000;
+                    if (attemptNumber >= maxAttempts) {
+                        throw new ConflictException("Too many concurrent bookings for this showtime, please try again");
+                    }
+                    backoff(attemptNumber);
+                }
+            }
+        } finally {
+            state.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Applies the update to a copy of the showtime's booked-seat bits and writes the result back.
+     */
+    public void write(Integer showtimeId, boolean optimistic, UnaryOperator<byte[]> update) {
+        if (!optimistic) {
+            long lockStart = System.nanoTime();
+            ShowtimeSeatMap seatMap = showtimeSeatMapRepository.findByShowtimeIdForUpdate(showtimeId)
+                    .orElseThrow(() -> seatMapNotFound(showtimeId));
+            bookingMetrics.recordLockWait(System.nanoTime() - lockStart);
+            seatMap.setBookedBits(update.apply(seatMap.getBookedBits().clone()));
+            return;
+        }
+
+        ShowtimeSeatMapRepository.SeatMapState state = showtimeSeatMapRepository.findStateByShowtimeId(showtimeId)
+                .orElseThrow(() -> seatMapNotFound(showtimeId));
+        byte[] bookedBits = update.apply(state.getBookedBits().clone());
+        if (showtimeSeatMapRepository.updateIfVersion(showtimeId, bookedBits, state.getVersion()) == 0) {
+            throw new SeatMapConflictException();
+        }
+    }
+
+    public BookingLockMode getMode() {
+        return mode;
+    }
+
+    // Full jitter: a random wait up to an exponentially growing cap
+    private void backoff(int attemptNumber) {
+        long cap = backoffMs << (attemptNumber - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying the booking");
+        }
+    }
+
+    private static ResourceNotFoundException seatMapNotFound(Integer showtimeId) {
+        return new ResourceNotFoundException("Seat map not found for showtime: " + showtimeId);
+    }
+
+    private static final class Contention {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long hotUntil;
+    }
+
+    private static final class SeatMapConflictException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private SeatMapConflictException() {
+            super("Seat map changed concurrently", null, false, false);
+        }
+    }
+}
@@ -1,38 +1,76 @@
 package com.moviebooking.service;
 
+import com.moviebooking.config.ReadRouting;
+import com.moviebooking.dto.SeatChangesResponse;
 import com.moviebooking.dto.SeatResponse;
 import com.moviebooking.entity.Showtime;
 import com.moviebooking.exception.ResourceNotFoundException;
-import com.moviebooking.repository.SeatRepository;
 import com.moviebooking.repository.ShowtimeRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
+// Read on the primary: seat state loaded here backs bookings for as long as it stays in memory
 @Service
 public class SeatService {
     @Autowired
-    private SeatRepository seatRepository;
+    private ShowtimeRepository showtimeRepository;
 
     @Autowired
-    private ShowtimeRepository showtimeRepository;
+    private SeatStateEngine seatStateEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
+    private TransactionTemplate loadTemplate;
+
+    @PostConstruct
+    void init() {
+        loadTemplate = new TransactionTemplate(transactionManager);
+        loadTemplate.setReadOnly(true);
+    }
+
+    @Timed(value = "seat.map.read", extraTags = {"format", "json"})
+    @Transactional(readOnly = true)
     public List<SeatResponse> getSeatsByShowtimeId(Integer showtimeId) {
-        Showtime showtime = showtimeRepository.findById(showtimeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + showtimeId));
+        return ReadRouting.onPrimary(() -> seatStateEngine.getSeatMap(findShowtime(showtimeId)));
+    }
+
+    /**
+     * Current seat map version; answered from memory without a transaction or connection once the
+     * showtime's seat state is loaded.
+     */
+    public String getSeatMapVersion(Integer showtimeId) {
+        String version = seatStateEngine.getLoadedVersion(showtimeId);
+        return version != null ? version : load(showtimeId, seatStateEngine::getVersion);
+    }
+
+    @Timed(value = "seat.map.read", extraTags = {"format", "packed"})
+    public PackedSeatMap getPackedSeatMap(Integer showtimeId) {
+        PackedSeatMap packed = seatStateEngine.getLoadedPackedSeatMap(showtimeId);
+        return packed != null ? packed : load(showtimeId, seatStateEngine::getPackedSeatMap);
+    }
+
+    @Timed(value = "seat.map.read", extraTags = {"format", "changes"})
+    @Transactional(readOnly = true)
+    public SeatChangesResponse getSeatChangesSince(Integer showtimeId, String since) {
+        return ReadRouting.onPrimary(() -> seatStateEngine.getChangesSince(findShowtime(showtimeId), since));
+    }
 
-        return seatRepository.findByShowtimeId(showtimeId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    // Only a miss on the in-memory seat state opens a transaction
+    private <T> T load(Integer showtimeId, Function<Showtime, T> read) {
+        return loadTemplate.execute(status -> ReadRouting.onPrimary(() -> read.apply(findShowtime(showtimeId))));
     }
 
-    private SeatResponse mapToResponse(com.moviebooking.entity.Seat seat) {
-        return new SeatResponse(
-                seat.getId(),
-                seat.getSeatNumber(),
-                seat.getIsBooked()
-        );
+    private Showtime findShowtime(Integer showtimeId) {
+        return showtimeRepository.findById(showtimeId)
+                .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + showtimeId));
     }
 }
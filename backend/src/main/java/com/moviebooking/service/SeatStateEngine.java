@@ -0,0 +1,442 @@
+package com.moviebooking.service;
+
+import com.moviebooking.dto.SeatChangesResponse;
+import com.moviebooking.dto.SeatResponse;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.exception.ConflictException;
+import com.moviebooking.exception.SeatUnavailableException;
+import com.moviebooking.repository.ShowtimeSeatMapRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a {@link SeatBitmap} per showtime so concurrent bookings are resolved in memory with
+ * compare-and-set before anything is written to the showtime's seat map. The seat map row stays
+ * the source of truth: bitmaps are loaded from it on first use and dropped whenever it is rebuilt.
+ * Claims that only live in memory, i.e. seat holds, are pinned so a reloaded bitmap gets them back.
+ */
+@Component
+public class SeatStateEngine {
+    // Each failed attempt means other bookings took seats in the chosen block in the meantime
+    private static final int MAX_ALLOCATION_ATTEMPTS = 16;
+
+    @Autowired
+    private ShowtimeSeatMapRepository showtimeSeatMapRepository;
+
+    private final ConcurrentMap<Integer, SeatBitmap> bitmaps = new ConcurrentHashMap<>();
+
+    private final List<SeatChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Pinned claims per showtime; pinning, unpinning and installing a loaded bitmap hold the lock
+    private final Map<Integer, Set<SeatClaim>> pinnedClaims = new HashMap<>();
+    private final Object pinLock = new Object();
+
+    // Seeded from the clock so versions handed out before a restart never match afterwards
+    private final AtomicLong epochs = new AtomicLong(System.currentTimeMillis());
+
+    @Value("${app.seats.change-log-size:1024}")
+    private int changeLogSize;
+
+    public void addListener(SeatChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public SeatClaim claim(Showtime showtime, List<String> seatNumbers) {
+        SeatBitmap bitmap = bitmapFor(showtime);
+        SeatLayout layout = bitmap.getLayout();
+
+        int[] indices = new int[seatNumbers.size()];
+        for (int i = 0; i < indices.length; i++) {
+            int index = layout.indexOf(seatNumbers.get(i));
+            if (index < 0) {
+                throw new BadRequestException("One or more seats not found");
+            }
+            indices[i] = index;
+        }
+
+        Arrays.sort(indices);
+        for (int i = 1; i < indices.length; i++) {
+            if (indices[i] == indices[i - 1]) {
+                throw new BadRequestException("One or more seats not found");
+            }
+        }
+
+        int conflict = tryClaim(bitmap, indices);
+        if (conflict >= 0) {
+            throw new SeatUnavailableException("Seat " + layout.seatNumberAt(conflict) + " is already booked");
+        }
+
+        // Claimed seats show as booked right away, matching getSeatMap; a rollback publishes the release
+        publish(bitmap, indices, true);
+        return new SeatClaim(this, bitmap, indices);
+    }
+
+    /**
+     * Claims the best block of adjacent free seats, searching again if another booking takes part of
+     * the chosen block before it is claimed.
+     */
+    public SeatClaim claimBestAvailable(Showtime showtime, int quantity) {
+        SeatBitmap bitmap = bitmapFor(showtime);
+        for (int attempt = 0; attempt < MAX_ALLOCATION_ATTEMPTS; attempt++) {
+            int[] indices = SeatAllocator.findBest(bitmap, quantity);
+            if (indices == null) {
+                throw new SeatUnavailableException("Not enough adjacent seats available");
+            }
+            if (tryClaim(bitmap, indices) < 0) {
+                publish(bitmap, indices, true);
+                return new SeatClaim(this, bitmap, indices);
+            }
+        }
+        throw new ConflictException("Seats are selling too fast, please try again");
+    }
+
+    public void releaseOnRollback(SeatClaim claim) {
+        runAfterCompletion(false, claim::release);
+    }
+
+    /**
+     * Keeps the claim across reloads of the showtime's seat state until it is released. A claim that
+     * cannot be re-applied to a reloaded bitmap is marked lost.
+     */
+    public void pin(SeatClaim claim) {
+        synchronized (pinLock) {
+            pinnedClaims.computeIfAbsent(claim.bitmap.getShowtimeId(), id -> new HashSet<>()).add(claim);
+            claim.pinned = true;
+            // The showtime may have been reloaded since the claim was made
+            SeatBitmap current = bitmaps.get(claim.bitmap.getShowtimeId());
+            if (current != null && current != claim.bitmap) {
+                reapply(claim, current);
+            }
+        }
+    }
+
+    /**
+     * Hands a pinned claim back to the caller, e.g. a transaction that writes its seats to the seat map.
+     */
+    public void unpin(SeatClaim claim) {
+        synchronized (pinLock) {
+            if (claim.pinned) {
+                unpinLocked(claim);
+            }
+        }
+    }
+
+    public boolean hasPinnedClaims(Integer showtimeId) {
+        synchronized (pinLock) {
+            return pinnedClaims.containsKey(showtimeId);
+        }
+    }
+
+    /**
+     * Once the transaction has rolled back, and with it the claim, marks the given seats booked: the
+     * seat map row showed them booked although the bitmap had them free.
+     */
+    public void markBookedAfterRollback(SeatClaim claim, int[] indices) {
+        runAfterCompletion(false, () -> {
+            SeatBitmap bitmap = claim.bitmap;
+            if (bitmaps.get(bitmap.getShowtimeId()) != bitmap) {
+                // Reloaded from the seat map row meanwhile, so already up to date
+                return;
+            }
+            int[] marked = Arrays.stream(indices)
+                    .filter(index -> bitmap.tryClaim(new int[]{index}) < 0)
+                    .toArray();
+            if (marked.length > 0) {
+                publish(bitmap, marked, true);
+            }
+        });
+    }
+
+    public void releaseAfterCommit(Integer showtimeId, List<String> seatNumbers) {
+        runAfterCompletion(true, () -> {
+            SeatBitmap bitmap = bitmaps.get(showtimeId);
+            if (bitmap == null) {
+                return;
+            }
+            int[] indices = seatNumbers.stream()
+                    .mapToInt(bitmap.getLayout()::indexOf)
+                    .filter(index -> index >= 0)
+                    .toArray();
+            release(bitmap, indices);
+        });
+    }
+
+    public void evict(Integer showtimeId) {
+        bitmaps.remove(showtimeId);
+        for (SeatChangeListener listener : listeners) {
+            listener.seatMapReset(showtimeId);
+        }
+    }
+
+    public void evictAfterCommit(Integer showtimeId) {
+        runAfterCompletion(true, () -> evict(showtimeId));
+    }
+
+    public List<SeatResponse> getSeatMap(Showtime showtime) {
+        return seatMap(bitmapFor(showtime));
+    }
+
+    public PackedSeatMap getPackedSeatMap(Showtime showtime) {
+        return bitmapFor(showtime).getPacked();
+    }
+
+    /**
+     * Returns the binary seat map of a showtime whose seat state is already in memory, or null.
+     */
+    public PackedSeatMap getLoadedPackedSeatMap(Integer showtimeId) {
+        SeatBitmap bitmap = bitmaps.get(showtimeId);
+        return bitmap != null ? bitmap.getPacked() : null;
+    }
+
+    /**
+     * Returns the current seat map version of a showtime whose seat state is already in memory, or null.
+     */
+    public String getLoadedVersion(Integer showtimeId) {
+        SeatBitmap bitmap = bitmaps.get(showtimeId);
+        return bitmap != null ? versionOf(bitmap.getChanges(), bitmap.getChanges().getVersion()) : null;
+    }
+
+    public String getVersion(Showtime showtime) {
+        SeatChangeLog changes = bitmapFor(showtime).getChanges();
+        return versionOf(changes, changes.getVersion());
+    }
+
+    /**
+     * Returns the seats that changed since the given version with their current state, or the whole
+     * seat map if the version is from an older epoch or has dropped out of the change log.
+     */
+    public SeatChangesResponse getChangesSince(Showtime showtime, String since) {
+        long[] parsed = parseVersion(since);
+        SeatBitmap bitmap = bitmapFor(showtime);
+        SeatChangeLog changes = bitmap.getChanges();
+
+        SeatChangeLog.Delta delta = parsed[0] == changes.getEpoch() ? changes.changedSince(parsed[1]) : null;
+        if (delta == null) {
+            // Read the version first: the seats may be newer than it, but never older
+            String version = versionOf(changes, changes.getVersion());
+            return new SeatChangesResponse(version, true, seatMap(bitmap));
+        }
+
+        SeatLayout layout = bitmap.getLayout();
+        List<SeatResponse> seats = new ArrayList<>(delta.getSeatIndices().length);
+        for (int index : delta.getSeatIndices()) {
+            seats.add(new SeatResponse(index + 1, layout.seatNumberAt(index), bitmap.isTaken(index)));
+        }
+        return new SeatChangesResponse(versionOf(changes, delta.getVersion()), false, seats);
+    }
+
+    private List<SeatResponse> seatMap(SeatBitmap bitmap) {
+        SeatLayout layout = bitmap.getLayout();
+
+        List<SeatResponse> seats = new ArrayList<>(layout.getTotalSeats());
+        for (int index = 0; index < layout.getTotalSeats(); index++) {
+            // Seats have no rows of their own any more; the id is the seat's 1-based position in the layout
+            seats.add(new SeatResponse(index + 1, layout.seatNumberAt(index), bitmap.isTaken(index)));
+        }
+        return seats;
+    }
+
+    private static String versionOf(SeatChangeLog changes, long version) {
+        return changes.getEpoch() + "." + version;
+    }
+
+    // Accepts the bare version or the ETag of either representation it was sent in
+    private static long[] parseVersion(String version) {
+        String value = version.startsWith("W/") ? version.substring(2) : version;
+        value = value.replace("\"", "");
+        int suffix = value.indexOf('-');
+        if (suffix >= 0) {
+            value = value.substring(0, suffix);
+        }
+        int dot = value.indexOf('.');
+        try {
+            return new long[]{Long.parseLong(value.substring(0, dot)), Long.parseLong(value.substring(dot + 1))};
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid seat map version");
+        }
+    }
+
+    private SeatBitmap bitmapFor(Showtime showtime) {
+        SeatBitmap bitmap = bitmaps.get(showtime.getId());
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        SeatBitmap loaded = load(showtime);
+        synchronized (pinLock) {
+            bitmap = bitmaps.get(showtime.getId());
+            if (bitmap != null) {
+                return bitmap;
+            }
+            // Holds go back in before anyone else can claim their seats
+            for (SeatClaim claim : List.copyOf(pinnedClaims.getOrDefault(showtime.getId(), Set.of()))) {
+                reapply(claim, loaded);
+            }
+            bitmaps.put(showtime.getId(), loaded);
+            return loaded;
+        }
+    }
+
+    // Called with the pin lock held
+    private void reapply(SeatClaim claim, SeatBitmap bitmap) {
+        if (bitmap.getLayout().equals(claim.bitmap.getLayout()) && tryClaim(bitmap, claim.indices) < 0) {
+            bitmap.refreshFreeRuns(claim.indices);
+            claim.bitmap = bitmap;
+            return;
+        }
+        claim.lost = true;
+        unpinLocked(claim);
+    }
+
+    // Called with the pin lock held
+    private void unpinLocked(SeatClaim claim) {
+        claim.pinned = false;
+        Set<SeatClaim> claims = pinnedClaims.get(claim.bitmap.getShowtimeId());
+        if (claims != null && claims.remove(claim) && claims.isEmpty()) {
+            pinnedClaims.remove(claim.bitmap.getShowtimeId());
+        }
+    }
+
+    private SeatBitmap load(Showtime showtime) {
+        SeatLayout layout = SeatLayout.forShowtime(showtime);
+        SeatBitmap bitmap = new SeatBitmap(showtime.getId(), layout,
+                new SeatChangeLog(epochs.incrementAndGet(), changeLogSize));
+
+        // Read through the projection: a managed seat map here would be the stale copy a later locked write gets back
+        byte[] bookedBits = showtimeSeatMapRepository.findStateByShowtimeId(showtime.getId())
+                .map(ShowtimeSeatMapRepository.SeatMapState::getBookedBits)
+                .orElseGet(() -> SeatBits.empty(layout.getTotalSeats()));
+        for (int index = 0; index < layout.getTotalSeats(); index++) {
+            if (SeatBits.isSet(bookedBits, index)) {
+                bitmap.markTaken(index);
+            }
+        }
+        bitmap.refreshAllFreeRuns();
+        return bitmap;
+    }
+
+    private void release(SeatBitmap bitmap, int[] indices) {
+        bitmap.release(indices);
+        publish(bitmap, indices, false);
+    }
+
+    // A claim that fails part-way held the seats before the conflict for a moment; readers may have seen them
+    // taken, so letting them go is published like any other release
+    private int tryClaim(SeatBitmap bitmap, int[] indices) {
+        int conflict = bitmap.tryClaim(indices);
+        if (conflict >= 0) {
+            int[] claimedBefore = SeatBitmap.claimedBefore(indices, conflict);
+            if (claimedBefore.length > 0) {
+                publish(bitmap, claimedBefore, false);
+            }
+        }
+        return conflict;
+    }
+
+    private void publish(SeatBitmap bitmap, int[] indices, boolean booked) {
+        bitmap.refreshFreeRuns(indices);
+        SeatChangeLog changes = bitmap.getChanges();
+        // Recorded after the bits flip, so a version never claims a change that is not visible yet; listeners
+        // are told under the log's lock so they hear about a showtime's changes in version order
+        synchronized (changes) {
+            if (!booked) {
+                // A seat claimed again since it was freed is announced by that claim, possibly already
+                indices = Arrays.stream(indices).filter(index -> !bitmap.isTaken(index)).toArray();
+                if (indices.length == 0) {
+                    return;
+                }
+            }
+            String version = versionOf(changes, changes.record(indices));
+            for (SeatChangeListener listener : listeners) {
+                listener.seatsChanged(bitmap.getShowtimeId(), bitmap.getLayout(), indices, booked, version);
+            }
+        }
+    }
+
+    private void runAfterCompletion(boolean onCommit, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit) {
+                action.run();
+            }
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == onCommit) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    public static final class SeatClaim {
+        private final SeatStateEngine engine;
+        private final int[] indices;
+        // Pinned claims move to the showtime's new bitmap when it is reloaded
+        private volatile SeatBitmap bitmap;
+        private boolean pinned;
+        private volatile boolean lost;
+
+        private SeatClaim(SeatStateEngine engine, SeatBitmap bitmap, int[] indices) {
+            this.engine = engine;
+            this.bitmap = bitmap;
+            this.indices = indices;
+        }
+
+        public int size() {
+            return indices.length;
+        }
+
+        int[] seatIndices() {
+            return indices;
+        }
+
+        public List<String> seatNumbers() {
+            List<String> seatNumbers = new ArrayList<>(indices.length);
+            for (int index : indices) {
+                seatNumbers.add(bitmap.getLayout().seatNumberAt(index));
+            }
+            return seatNumbers;
+        }
+
+        /**
+         * False once a pinned claim could not be carried over to reloaded seat state; its seats may
+         * belong to someone else by now.
+         */
+        public boolean isValid() {
+            return !lost;
+        }
+
+        public void release() {
+            SeatBitmap claimed;
+            synchronized (engine.pinLock) {
+                if (lost) {
+                    return;
+                }
+                if (pinned) {
+                    engine.unpinLocked(this);
+                }
+                claimed = bitmap;
+            }
+            engine.release(claimed, indices);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.moviebooking.service;
+
+import com.moviebooking.repository.ShowtimeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the running aggregates on showtimes (booked seats, reservations, revenue) out of the booking
+ * transaction, so a booking only locks the showtime's seat map row. Changes are queued once their
+ * booking or cancellation commits and written by a periodic flush, one update per showtime. Changes
+ * still queued when the process dies are lost until the nightly reconcile rebuilds the aggregates.
+ */
+@Component
+public class ShowtimeAggregateWriter {
+    private static final Logger logger = LoggerFactory.getLogger(ShowtimeAggregateWriter.class);
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<Integer, Delta> pending = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+
+    public void addAfterCommit(Integer showtimeId, int seats, long reservations, long revenueCents) {
+        Delta delta = new Delta(seats, reservations, revenueCents);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(showtimeId, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(showtimeId, delta);
+            }
+        });
+    }
+
+    /**
+     * Writes the queued changes; joins the caller's transaction if there is one.
+     */
+    @Scheduled(fixedDelayString = "${app.reports.aggregate-flush-ms:1000}")
+    public void flush() {
+        // In id order, so flushes of several instances lock showtimes in the same order
+        Map<Integer, Delta> batch = new TreeMap<>();
+        for (Integer showtimeId : pending.keySet()) {
+            Delta delta = pending.remove(showtimeId);
+            if (delta != null) {
+                batch.put(showtimeId, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach((showtimeId, delta) ->
+                    showtimeRepository.applyBookingDelta(showtimeId, delta.seats, delta.reservations, delta.revenueCents)));
+        } catch (RuntimeException e) {
+            // Kept for the next flush
+            batch.forEach(this::add);
+            logger.warn("Could not write showtime aggregates for {} showtimes, retrying", batch.size(), e);
+        }
+    }
+
+    private void add(Integer showtimeId, Delta delta) {
+        pending.merge(showtimeId, delta, Delta::plus);
+    }
+
+    private static final class Delta {
+        private final int seats;
+        private final long reservations;
+        private final long revenueCents;
+
+        private Delta(int seats, long reservations, long revenueCents) {
+            this.seats = seats;
+            this.reservations = reservations;
+            this.revenueCents = revenueCents;
+        }
+
+        private Delta plus(Delta other) {
+            return new Delta(seats + other.seats, reservations + other.reservations, revenueCents + other.revenueCents);
+        }
+    }
+}
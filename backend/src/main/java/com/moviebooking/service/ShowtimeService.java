@@ -1,22 +1,34 @@
 package com.moviebooking.service;
 
+import com.moviebooking.config.CacheConfig;
+import com.moviebooking.config.ReadRouting;
 import com.moviebooking.dto.ShowtimeRequest;
 import com.moviebooking.dto.ShowtimeResponse;
+import com.moviebooking.entity.Auditorium;
 import com.moviebooking.entity.Movie;
-import com.moviebooking.entity.Seat;
 import com.moviebooking.entity.Showtime;
+import com.moviebooking.entity.ShowtimeSeatMap;
 import com.moviebooking.exception.BadRequestException;
 import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.repository.AuditoriumRepository;
 import com.moviebooking.repository.MovieRepository;
-import com.moviebooking.repository.SeatRepository;
 import com.moviebooking.repository.ShowtimeRepository;
+import com.moviebooking.repository.ShowtimeSeatMapRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,36 +40,76 @@ public class ShowtimeService {
     private MovieRepository movieRepository;
 
     @Autowired
-    private SeatRepository seatRepository;
+    private AuditoriumRepository auditoriumRepository;
+
+    @Autowired
+    private ShowtimeSeatMapRepository showtimeSeatMapRepository;
+
+    @Autowired
+    private SeatStateEngine seatStateEngine;
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SHOWTIMES_BY_MOVIE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_SHOWTIMES, allEntries = true)
+    })
     public ShowtimeResponse createShowtime(ShowtimeRequest request) {
-        if (request.getStartTime().isAfter(request.getEndTime())) {
-            throw new BadRequestException("Start time must be before end time");
-        }
-
-        if (request.getStartTime().isBefore(LocalDateTime.now())) {
-            throw new BadRequestException("Start time must be in the future");
-        }
+        return createShowtimes(List.of(request)).get(0);
+    }
 
-        Movie movie = movieRepository.findById(request.getMovieId())
-                .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + request.getMovieId()));
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SHOWTIMES_BY_MOVIE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_SHOWTIMES, allEntries = true)
+    })
+    public List<ShowtimeResponse> createShowtimes(List<ShowtimeRequest> requests) {
+        requests.forEach(this::validateNewShowtime);
+
+        Set<Integer> movieIds = requests.stream().map(ShowtimeRequest::getMovieId).collect(Collectors.toSet());
+        Map<Integer, Movie> movies = movieRepository.findAllById(movieIds).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+
+        Set<Integer> auditoriumIds = requests.stream()
+                .map(ShowtimeRequest::getAuditoriumId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Integer, Auditorium> auditoriums = auditoriumRepository.findAllById(auditoriumIds).stream()
+                .collect(Collectors.toMap(Auditorium::getId, Function.identity()));
+
+        List<Showtime> showtimes = new ArrayList<>(requests.size());
+        for (ShowtimeRequest request : requests) {
+            Movie movie = movies.get(request.getMovieId());
+            if (movie == null) {
+                throw new ResourceNotFoundException("Movie not found with id: " + request.getMovieId());
+            }
 
-        Showtime showtime = new Showtime();
-        showtime.setMovie(movie);
-        showtime.setStartTime(request.getStartTime());
-        showtime.setEndTime(request.getEndTime());
-        showtime.setTotalSeats(request.getTotalSeats());
+            Showtime showtime = new Showtime();
+            showtime.setMovie(movie);
+            showtime.setStartTime(request.getStartTime());
+            showtime.setEndTime(request.getEndTime());
+            applySeating(showtime, request, auditoriums);
+            showtimes.add(showtime);
+        }
 
-        Showtime savedShowtime = showtimeRepository.save(showtime);
+        List<Showtime> savedShowtimes = showtimeRepository.saveAll(showtimes);
 
-        // Auto-generate seats
-        generateSeats(savedShowtime);
+        // One seat map row per showtime instead of one row per seat
+        List<ShowtimeSeatMap> seatMaps = savedShowtimes.stream()
+                .map(showtime -> new ShowtimeSeatMap(null, showtime,
+                        SeatBits.empty(SeatLayout.forShowtime(showtime).getTotalSeats()), null))
+                .collect(Collectors.toList());
+        showtimeSeatMapRepository.saveAll(seatMaps);
 
-        return mapToResponse(savedShowtime);
+        return savedShowtimes.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SHOWTIMES_BY_MOVIE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_SHOWTIMES, allEntries = true)
+    })
     public ShowtimeResponse updateShowtime(Integer id, ShowtimeRequest request) {
         if (request.getStartTime().isAfter(request.getEndTime())) {
             throw new BadRequestException("Start time must be before end time");
@@ -69,15 +121,28 @@ public class ShowtimeService {
         Movie movie = movieRepository.findById(request.getMovieId())
                 .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + request.getMovieId()));
 
+        Map<Integer, Auditorium> auditoriums = request.getAuditoriumId() == null ? Map.of()
+                : auditoriumRepository.findById(request.getAuditoriumId())
+                        .map(auditorium -> Map.of(auditorium.getId(), auditorium))
+                        .orElse(Map.of());
+
+        SeatLayout previousLayout = SeatLayout.forShowtime(showtime);
         showtime.setMovie(movie);
         showtime.setStartTime(request.getStartTime());
         showtime.setEndTime(request.getEndTime());
-
-        if (!showtime.getTotalSeats().equals(request.getTotalSeats())) {
-            showtime.setTotalSeats(request.getTotalSeats());
-            // Regenerate seats if total seats changed
-            seatRepository.deleteAll(showtime.getSeats());
-            generateSeats(showtime);
+        applySeating(showtime, request, auditoriums);
+
+        SeatLayout layout = SeatLayout.forShowtime(showtime);
+        if (!layout.equals(previousLayout)) {
+            // Seat numbers would point at different seats, so only an unbooked showtime can be re-seated
+            ShowtimeSeatMap seatMap = showtimeSeatMapRepository.findByShowtimeIdForUpdate(id)
+                    .orElseGet(() -> new ShowtimeSeatMap(null, showtime, SeatBits.empty(0), null));
+            if (!SeatBits.isEmpty(seatMap.getBookedBits()) || seatStateEngine.hasPinnedClaims(id)) {
+                throw new BadRequestException("Cannot change the seating of a showtime that has bookings or held seats");
+            }
+            seatMap.setBookedBits(SeatBits.empty(layout.getTotalSeats()));
+            showtimeSeatMapRepository.save(seatMap);
+            seatStateEngine.evictAfterCommit(id);
         }
 
         Showtime updatedShowtime = showtimeRepository.save(showtime);
@@ -85,63 +150,78 @@ public class ShowtimeService {
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SHOWTIMES_BY_MOVIE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_SHOWTIMES, allEntries = true)
+    })
     public void deleteShowtime(Integer id) {
         Showtime showtime = showtimeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + id));
+        showtimeSeatMapRepository.deleteByShowtimeId(id);
         showtimeRepository.delete(showtime);
+        seatStateEngine.evictAfterCommit(id);
     }
 
+    @Timed(value = "showtime.listing", extraTags = {"query", "by_id"})
+    @Transactional(readOnly = true)
     public ShowtimeResponse getShowtimeById(Integer id) {
-        Showtime showtime = showtimeRepository.findById(id)
+        return showtimeRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Showtime not found with id: " + id));
-        return mapToResponse(showtime);
     }
 
+    // Cached listings are read on the primary so a lagging replica never ends up in the cache
+    @Timed(value = "showtime.listing", extraTags = {"query", "by_movie"})
+    @Cacheable(cacheNames = CacheConfig.SHOWTIMES_BY_MOVIE, key = "#movieId")
+    @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByMovieId(Integer movieId) {
-        return showtimeRepository.findByMovieId(movieId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return ReadRouting.onPrimary(() -> showtimeRepository.findResponsesByMovieId(movieId));
     }
 
+    @Timed(value = "showtime.listing", extraTags = {"query", "by_movie_and_date"})
+    @Transactional(readOnly = true)
     public List<ShowtimeResponse> getShowtimesByMovieIdAndDate(Integer movieId, LocalDateTime date) {
-        return showtimeRepository.findByMovieIdAndDate(movieId, date).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return showtimeRepository.findResponsesByMovieIdAndDate(movieId, date);
     }
 
+    @Timed(value = "showtime.listing", extraTags = {"query", "upcoming"})
+    @Cacheable(cacheNames = CacheConfig.UPCOMING_SHOWTIMES, key = "'all'")
+    @Transactional(readOnly = true)
     public List<ShowtimeResponse> getAllUpcomingShowtimes() {
-        return showtimeRepository.findByStartTimeAfter(LocalDateTime.now()).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return ReadRouting.onPrimary(() -> showtimeRepository.findUpcomingResponses(LocalDateTime.now()));
     }
 
-    private void generateSeats(Showtime showtime) {
-        List<Seat> seats = new ArrayList<>();
-        int totalSeats = showtime.getTotalSeats();
-        int rows = (int) Math.ceil(Math.sqrt(totalSeats));
-        int seatsPerRow = (int) Math.ceil((double) totalSeats / rows);
-
-        int seatNumber = 1;
-        for (int row = 0; row < rows && seatNumber <= totalSeats; row++) {
-            char rowLetter = (char) ('A' + row);
-            for (int col = 1; col <= seatsPerRow && seatNumber <= totalSeats; col++) {
-                Seat seat = new Seat();
-                seat.setShowtime(showtime);
-                seat.setSeatNumber(rowLetter + String.valueOf(col));
-                seat.setIsBooked(false);
-                seats.add(seat);
-                seatNumber++;
-            }
+    private void validateNewShowtime(ShowtimeRequest request) {
+        if (request.getStartTime().isAfter(request.getEndTime())) {
+            throw new BadRequestException("Start time must be before end time");
         }
 
-        seatRepository.saveAll(seats);
+        if (request.getStartTime().isBefore(LocalDateTime.now())) {
+            throw new BadRequestException("Start time must be in the future");
+        }
     }
 
-    private ShowtimeResponse mapToResponse(Showtime showtime) {
-        long availableSeats = showtime.getSeats().stream()
-                .filter(seat -> !seat.getIsBooked())
-                .count();
+    private void applySeating(Showtime showtime, ShowtimeRequest request, Map<Integer, Auditorium> auditoriums) {
+        if (request.getAuditoriumId() != null) {
+            Auditorium auditorium = auditoriums.get(request.getAuditoriumId());
+            if (auditorium == null) {
+                throw new ResourceNotFoundException("Auditorium not found with id: " + request.getAuditoriumId());
+            }
+            showtime.setAuditorium(auditorium);
+            showtime.setTotalSeats(auditorium.getTotalSeats());
+            showtime.setSeatRows(null);
+        } else if (request.getTotalSeats() != null) {
+            // Unchanged seating keeps its grid, so showtimes numbered before the row limit stay as they are
+            if (showtime.getAuditorium() != null || !request.getTotalSeats().equals(showtime.getTotalSeats())) {
+                showtime.setSeatRows(SeatLayout.rowsFor(request.getTotalSeats()));
+            }
+            showtime.setAuditorium(null);
+            showtime.setTotalSeats(request.getTotalSeats());
+        } else {
+            throw new BadRequestException("Either an auditorium or the total seats is required");
+        }
+    }
 
+    private ShowtimeResponse mapToResponse(Showtime showtime) {
         return new ShowtimeResponse(
                 showtime.getId(),
                 showtime.getMovie().getId(),
@@ -149,7 +229,9 @@ public class ShowtimeService {
                 showtime.getStartTime(),
                 showtime.getEndTime(),
                 showtime.getTotalSeats(),
-                (int) availableSeats
+                showtime.getTotalSeats() - showtime.getBookedSeats(),
+                showtime.getAuditorium() != null ? showtime.getAuditorium().getId() : null,
+                showtime.getAuditorium() != null ? showtime.getAuditorium().getName() : null
         );
     }
 }
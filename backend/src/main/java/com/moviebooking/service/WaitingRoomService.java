@@ -0,0 +1,245 @@
+package com.moviebooking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.moviebooking.dto.QueueTicketResponse;
+import com.moviebooking.dto.WaitingRoomResponse;
+import com.moviebooking.exception.BadRequestException;
+import com.moviebooking.exception.ConflictException;
+import com.moviebooking.exception.ResourceNotFoundException;
+import com.moviebooking.exception.TooManyRequestsException;
+import com.moviebooking.repository.ShowtimeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Virtual waiting rooms for showtimes whose on-sale would otherwise swamp the booking path. While a
+ * showtime's room is open, booking it needs an admitted queue token. Joining hands out the next
+ * ticket number and tickets are admitted in order at a fixed rate, so joining, admission and a
+ * ticket's position are all counter arithmetic. Joins past the maximum queue depth are shed with a
+ * Retry-After hint. An admission lets one booking through within a fixed time. Rooms live in memory
+ * and are not shared between instances.
+ */
+@Service
+public class WaitingRoomService {
+    public static final String TOKEN_HEADER = "X-Queue-Token";
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Value("${app.waiting-room.admit-per-second:20}")
+    private double defaultAdmitPerSecond;
+
+    @Value("${app.waiting-room.max-queue-depth:10000}")
+    private long maxQueueDepth;
+
+    @Value("${app.waiting-room.ticket-idle-minutes:15}")
+    private long ticketIdleMinutes;
+
+    @Value("${app.waiting-room.admission-minutes:10}")
+    private long admissionMinutes;
+
+    private final ConcurrentMap<Integer, Room> rooms = new ConcurrentHashMap<>();
+
+    public WaitingRoomResponse open(Integer showtimeId, Double admitPerSecond) {
+        if (!showtimeRepository.existsById(showtimeId)) {
+            throw new ResourceNotFoundException("Showtime not found with id: " + showtimeId);
+        }
+        double rate = admitPerSecond != null ? admitPerSecond : defaultAdmitPerSecond;
+        if (!(rate > 0)) {
+            throw new BadRequestException("Admission rate must be positive");
+        }
+
+        // Reopening only changes the rate, so nobody loses their place
+        Room room = rooms.computeIfAbsent(showtimeId, id -> new Room(rate, ticketIdleMinutes, admissionMinutes));
+        room.setAdmitPerSecond(rate);
+        return room.toResponse(showtimeId);
+    }
+
+    public void close(Integer showtimeId) {
+        if (rooms.remove(showtimeId) == null) {
+            throw new ResourceNotFoundException("No waiting room is open for showtime: " + showtimeId);
+        }
+    }
+
+    public WaitingRoomResponse getWaitingRoom(Integer showtimeId) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            throw new ResourceNotFoundException("No waiting room is open for showtime: " + showtimeId);
+        }
+        return room.toResponse(showtimeId);
+    }
+
+    /**
+     * Puts the user in the showtime's queue, or returns their existing ticket if they already joined.
+     */
+    public QueueTicketResponse join(Integer showtimeId, Integer userId) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            return new QueueTicketResponse(null, showtimeId, true, 0, 0);
+        }
+
+        Ticket ticket = room.tickets.get(userId, id -> room.issue(maxQueueDepth));
+        return room.toResponse(showtimeId, ticket);
+    }
+
+    public QueueTicketResponse getTicket(Integer showtimeId, Integer userId, String token) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            return new QueueTicketResponse(null, showtimeId, true, 0, 0);
+        }
+        return room.toResponse(showtimeId, findTicket(room, userId, token));
+    }
+
+    /**
+     * Runs the booking if the showtime has no open waiting room or the user's ticket has been admitted;
+     * otherwise fails with 429 and a Retry-After of the ticket's expected wait. The admission is used up
+     * by the booking once it succeeds, so the booking must have committed by the time it returns; a
+     * failed booking leaves it for a retry.
+     */
+    public <T> T admit(Integer showtimeId, Integer userId, String token, Supplier<T> booking) {
+        Room room = rooms.get(showtimeId);
+        if (room == null) {
+            return booking.get();
+        }
+        if (token == null) {
+            throw new TooManyRequestsException("This showtime has a waiting room, please join the queue first", 1);
+        }
+
+        Ticket ticket = findTicket(room, userId, token);
+        QueueTicketResponse response = room.toResponse(showtimeId, ticket);
+        if (!response.isAdmitted()) {
+            throw new TooManyRequestsException("You are number " + response.getPosition() + " in the queue",
+                    response.getEtaSeconds());
+        }
+        if (!ticket.inUse.compareAndSet(false, true)) {
+            throw new ConflictException("Another booking is already using this queue ticket");
+        }
+
+        T result;
+        try {
+            result = booking.get();
+        } catch (RuntimeException e) {
+            ticket.inUse.set(false);
+            throw e;
+        }
+        room.tickets.asMap().remove(userId, ticket);
+        return result;
+    }
+
+    private static Ticket findTicket(Room room, Integer userId, String token) {
+        Ticket ticket = room.tickets.getIfPresent(userId);
+        if (ticket == null || !ticket.token.equals(token)) {
+            throw new ResourceNotFoundException("Queue ticket not found, please join the queue again");
+        }
+        return ticket;
+    }
+
+    private static final class Room {
+        // Keyed by user, so rejoining keeps the same place; tickets of users who stop polling expire
+        private final Cache<Integer, Ticket> tickets;
+        private final long admissionNanos;
+
+        private double admitPerSecond;
+        private long issued;
+        // Tickets admitted so far, fractional between admissions
+        private double admitted;
+        private long refilledAt = System.nanoTime();
+
+        private Room(double admitPerSecond, long ticketIdleMinutes, long admissionMinutes) {
+            this.admitPerSecond = admitPerSecond;
+            this.admissionNanos = Duration.ofMinutes(admissionMinutes).toNanos();
+            this.tickets = Caffeine.newBuilder()
+                    .expireAfter(new TicketExpiry(Duration.ofMinutes(ticketIdleMinutes).toNanos()))
+                    .build();
+        }
+
+        synchronized void setAdmitPerSecond(double admitPerSecond) {
+            refill();
+            this.admitPerSecond = admitPerSecond;
+        }
+
+        synchronized Ticket issue(long maxQueueDepth) {
+            refill();
+            long depth = issued - (long) admitted;
+            if (depth >= maxQueueDepth) {
+                long retryAfter = (long) Math.ceil((depth - maxQueueDepth + 1) / admitPerSecond);
+                throw new TooManyRequestsException("The waiting room is full, please try again later", retryAfter);
+            }
+            issued++;
+            return new Ticket(UUID.randomUUID().toString(), issued);
+        }
+
+        synchronized QueueTicketResponse toResponse(Integer showtimeId, Ticket ticket) {
+            refill();
+            long position = Math.max(0, ticket.number - (long) admitted);
+            if (position == 0 && !ticket.admitted) {
+                ticket.admittedUntil = System.nanoTime() + admissionNanos;
+                ticket.admitted = true;
+            }
+            long etaSeconds = (long) Math.ceil(position / admitPerSecond);
+            return new QueueTicketResponse(ticket.token, showtimeId, position == 0, position, etaSeconds);
+        }
+
+        synchronized WaitingRoomResponse toResponse(Integer showtimeId) {
+            refill();
+            long admittedCount = Math.min(issued, (long) admitted);
+            return new WaitingRoomResponse(showtimeId, admitPerSecond, issued, admittedCount, issued - admittedCount);
+        }
+
+        // Admissions accrue with time; an empty queue banks at most one second's worth for new arrivals
+        private void refill() {
+            long now = System.nanoTime();
+            admitted = Math.min(admitted + (now - refilledAt) / 1e9 * admitPerSecond, issued + admitPerSecond);
+            refilledAt = now;
+        }
+    }
+
+    // Waiting tickets last while they are polled; an admitted one lasts until its admission runs out
+    private static final class TicketExpiry implements Expiry<Integer, Ticket> {
+        private final long idleNanos;
+
+        private TicketExpiry(long idleNanos) {
+            this.idleNanos = idleNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Integer userId, Ticket ticket, long currentTime) {
+            return idleNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Integer userId, Ticket ticket, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Integer userId, Ticket ticket, long currentTime, long currentDuration) {
+            return ticket.admitted ? Math.max(0, ticket.admittedUntil - currentTime) : idleNanos;
+        }
+    }
+
+    private static final class Ticket {
+        private final String token;
+        private final long number;
+        // Set when the ticket is first seen admitted, under the room's lock
+        private volatile long admittedUntil;
+        private volatile boolean admitted;
+        // Held by the one booking using the admission
+        private final AtomicBoolean inUse = new AtomicBoolean();
+
+        private Ticket(String token, long number) {
+            this.token = token;
+            this.number = number;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.moviebooking.service;
+
+import com.moviebooking.dto.CursorPage;
+import com.moviebooking.dto.MovieRequest;
+import com.moviebooking.dto.ReservationRequest;
+import com.moviebooking.dto.ReservationResponse;
+import com.moviebooking.dto.ShowtimeRequest;
+import com.moviebooking.entity.User;
+import com.moviebooking.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements behind each reservation listing, so a listing that goes back to
+ * loading users, showtimes, movies or seat numbers one reservation at a time fails the build.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReservationQueryCountTest {
+    private static final int USERS = 3;
+    private static final int SHOWTIMES = 3;
+    private static final int RESERVATIONS_PER_USER_AND_SHOWTIME = 4;
+    private static final int RESERVATIONS = USERS * SHOWTIMES * RESERVATIONS_PER_USER_AND_SHOWTIME;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationExportService reservationExportService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Integer movieId;
+    private final List<Integer> showtimeIds = new ArrayList<>();
+    private final List<Integer> userIds = new ArrayList<>();
+
+    @BeforeAll
+    void createReservations() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        MovieRequest movie = new MovieRequest();
+        movie.setTitle("Query Count");
+        movie.setDescription("Fixture");
+        movie.setGenre("Drama");
+        movie.setPosterUrl("https://example.com/poster.jpg");
+        movieId = movieService.createMovie(movie).getId();
+
+        for (int day = 1; day <= SHOWTIMES; day++) {
+            LocalDateTime startTime = LocalDateTime.now().plusDays(day).withNano(0);
+            ShowtimeRequest showtime = new ShowtimeRequest();
+            showtime.setMovieId(movieId);
+            showtime.setStartTime(startTime);
+            showtime.setEndTime(startTime.plusHours(2));
+            showtime.setTotalSeats(100);
+            showtimeIds.add(showtimeService.createShowtime(showtime).getId());
+        }
+
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setName("Query Count User " + i);
+            user.setEmail("querycount" + i + "@moviebooking.com");
+            user.setPassword("not-used");
+            userIds.add(userRepository.save(user).getId());
+        }
+
+        // Two seats per reservation, so seat numbers have to be gathered for every row
+        for (Integer showtimeId : showtimeIds) {
+            for (int user = 0; user < USERS; user++) {
+                for (int k = 0; k < RESERVATIONS_PER_USER_AND_SHOWTIME; k++) {
+                    int slot = user * RESERVATIONS_PER_USER_AND_SHOWTIME + k;
+                    char row = (char) ('A' + slot / 5);
+                    int seat = slot % 5 * 2 + 1;
+                    ReservationRequest request = new ReservationRequest();
+                    request.setShowtimeId(showtimeId);
+                    request.setSeatNumbers(List.of(row + String.valueOf(seat), row + String.valueOf(seat + 1)));
+                    reservationService.createReservation(userIds.get(user), request);
+                }
+            }
+        }
+    }
+
+    @Test
+    void userReservationPagesTakeTwoStatementsEach() {
+        Integer userId = userIds.get(0);
+
+        CursorPage<ReservationResponse> first = assertStatements(2,
+                () -> reservationService.getUserReservations(userId, null, 5));
+        assertThat(first.getItems()).hasSize(5);
+        assertSeatNumbersFilled(first.getItems());
+
+        CursorPage<ReservationResponse> second = assertStatements(2,
+                () -> reservationService.getUserReservations(userId, first.getNextCursor(), 20));
+        assertThat(second.getItems()).hasSize(SHOWTIMES * RESERVATIONS_PER_USER_AND_SHOWTIME - 5);
+        assertSeatNumbersFilled(second.getItems());
+    }
+
+    @Test
+    void allReservationsPageTakesTwoStatements() {
+        CursorPage<ReservationResponse> page = assertStatements(2,
+                () -> reservationService.getAllReservations(null, null, null, null, null, 50));
+        assertThat(page.getItems()).hasSize(RESERVATIONS);
+        assertSeatNumbersFilled(page.getItems());
+    }
+
+    @Test
+    void filteredReservationPagesTakeTwoStatements() {
+        Integer showtimeId = showtimeIds.get(1);
+        CursorPage<ReservationResponse> byShowtime = assertStatements(2,
+                () -> reservationService.getAllReservations(showtimeId, null, null, null, null, 50));
+        assertThat(byShowtime.getItems()).hasSize(USERS * RESERVATIONS_PER_USER_AND_SHOWTIME);
+        assertSeatNumbersFilled(byShowtime.getItems());
+
+        LocalDateTime from = LocalDateTime.now().minusDays(1);
+        LocalDateTime to = LocalDateTime.now().plusDays(1);
+        CursorPage<ReservationResponse> byMovieAndDate = assertStatements(2,
+                () -> reservationService.getAllReservations(null, movieId, from, to, null, 50));
+        assertThat(byMovieAndDate.getItems()).hasSize(RESERVATIONS);
+        assertSeatNumbersFilled(byMovieAndDate.getItems());
+    }
+
+    @Test
+    void upcomingReservationsTakeTwoStatements() {
+        List<ReservationResponse> upcoming = assertStatements(2,
+                () -> reservationService.getUserUpcomingReservations(userIds.get(1)));
+        assertThat(upcoming).hasSize(SHOWTIMES * RESERVATIONS_PER_USER_AND_SHOWTIME);
+        assertSeatNumbersFilled(upcoming);
+    }
+
+    @Test
+    void singleReservationTakesTwoStatements() {
+        Integer userId = userIds.get(2);
+        Integer reservationId = reservationService.getUserReservations(userId, null, 1).getItems().get(0).getId();
+
+        ReservationResponse reservation = assertStatements(2,
+                () -> reservationService.getReservationById(reservationId, userId));
+        assertSeatNumbersFilled(List.of(reservation));
+    }
+
+    @Test
+    void exportTakesOneStatement() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertStatements(1, () -> {
+            try {
+                reservationExportService.export(ReservationExportService.Format.NDJSON, null, null, null, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+        assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(RESERVATIONS);
+    }
+
+    private <T> T assertStatements(long expected, Supplier<T> listing) {
+        statistics.clear();
+        T result = listing.get();
+        assertThat(statistics.getPrepareStatementCount())
+                .as("SQL statements")
+                .isEqualTo(expected);
+        return result;
+    }
+
+    private static void assertSeatNumbersFilled(List<ReservationResponse> reservations) {
+        assertThat(reservations).allSatisfy(reservation -> assertThat(reservation.getSeatNumbers()).hasSize(2));
+    }
+}
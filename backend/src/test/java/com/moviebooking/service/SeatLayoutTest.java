@@ -0,0 +1,45 @@
+package com.moviebooking.service;
+
+import com.moviebooking.entity.Showtime;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seat numbering of showtimes without an auditorium, which must never change under booked seats.
+ */
+class SeatLayoutTest {
+    @Test
+    void largeShowtimesStopAtRowZ() {
+        Showtime showtime = showtime(1000, SeatLayout.rowsFor(1000));
+        SeatLayout layout = SeatLayout.forShowtime(showtime);
+
+        assertThat(layout.getRows()).isEqualTo(SeatLayout.MAX_ROWS);
+        assertThat(layout.getSeatsPerRow()).isEqualTo(39);
+        assertThat(layout.seatNumberAt(999)).isEqualTo("Z25");
+        assertThat(layout).isEqualTo(SeatLayout.forTotalSeats(1000));
+    }
+
+    @Test
+    void showtimesFromBeforeTheRowLimitKeepTheirSquareGrid() {
+        SeatLayout layout = SeatLayout.forShowtime(showtime(1000, null));
+
+        assertThat(layout.getRows()).isEqualTo(32);
+        assertThat(layout.getSeatsPerRow()).isEqualTo(32);
+        assertThat(layout.seatNumberAt(26 * 32)).isEqualTo("[1");
+        assertThat(layout.indexOf("[1")).isEqualTo(26 * 32);
+    }
+
+    @Test
+    void smallShowtimesAreNumberedTheSameEitherWay() {
+        assertThat(SeatLayout.forShowtime(showtime(676, null)))
+                .isEqualTo(SeatLayout.forShowtime(showtime(676, SeatLayout.rowsFor(676))));
+    }
+
+    private static Showtime showtime(int totalSeats, Integer seatRows) {
+        Showtime showtime = new Showtime();
+        showtime.setTotalSeats(totalSeats);
+        showtime.setSeatRows(seatRows);
+        return showtime;
+    }
+}
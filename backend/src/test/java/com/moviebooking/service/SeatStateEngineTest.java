@@ -0,0 +1,160 @@
+package com.moviebooking.service;
+
+import com.moviebooking.dto.MovieRequest;
+import com.moviebooking.dto.SeatResponse;
+import com.moviebooking.dto.ShowtimeRequest;
+import com.moviebooking.entity.Showtime;
+import com.moviebooking.exception.SeatUnavailableException;
+import com.moviebooking.repository.ShowtimeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks what watchers of a showtime hear from {@link SeatStateEngine}, every version in order so a
+ * stream client never sees a gap it has to reload the seat map for, and that seat state in memory is
+ * read without the database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SeatStateEngineTest {
+    private static final int TOTAL_SEATS = 200;
+
+    @Autowired
+    private SeatStateEngine seatStateEngine;
+
+    @Autowired
+    private SeatService seatService;
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ShowtimeService showtimeService;
+
+    @Autowired
+    private ShowtimeRepository showtimeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Event> events = new CopyOnWriteArrayList<>();
+    private Integer movieId;
+
+    @BeforeAll
+    void setUp() {
+        MovieRequest movie = new MovieRequest();
+        movie.setTitle("Seat State");
+        movie.setDescription("Fixture");
+        movie.setGenre("Drama");
+        movie.setPosterUrl("https://example.com/poster.jpg");
+        movieId = movieService.createMovie(movie).getId();
+
+        seatStateEngine.addListener(new SeatChangeListener() {
+            @Override
+            public void seatsChanged(Integer showtimeId, SeatLayout layout, int[] indices, boolean booked,
+                                     String version) {
+                events.add(new Event(showtimeId, layout, indices.clone(), booked, version));
+            }
+
+            @Override
+            public void seatMapReset(Integer showtimeId) {
+            }
+        });
+    }
+
+    @Test
+    void failedClaimPublishesItsReleaseWithoutGap() {
+        Showtime showtime = showtimeRepository.findById(createShowtime()).orElseThrow();
+        Integer showtimeId = showtime.getId();
+        SeatLayout layout = SeatLayout.forTotalSeats(TOTAL_SEATS);
+        // The first seat sits in the bitmap's first word and the second two words later, so the failing
+        // claim takes the first before it runs into the second
+        String early = layout.seatNumberAt(5);
+        String late = layout.seatNumberAt(130);
+        SeatStateEngine.SeatClaim taken = seatStateEngine.claim(showtime, List.of(late));
+
+        assertThatThrownBy(() -> seatStateEngine.claim(showtime, List.of(early, late)))
+                .isInstanceOf(SeatUnavailableException.class);
+
+        List<Event> received = events.stream().filter(event -> event.showtimeId.equals(showtimeId)).toList();
+        assertThat(received).hasSize(2);
+        assertThat(received.get(0).booked).isTrue();
+        assertThat(received.get(0).seats()).containsExactly(late);
+        assertThat(received.get(1).booked).isFalse();
+        assertThat(received.get(1).seats()).containsExactly(early);
+        assertThat(counter(received.get(1).version)).isEqualTo(counter(received.get(0).version) + 1);
+        assertThat(seatService.getSeatMapVersion(showtimeId)).isEqualTo(received.get(1).version);
+        assertThat(seatService.getSeatsByShowtimeId(showtimeId))
+                .filteredOn(SeatResponse::getIsBooked)
+                .extracting(SeatResponse::getSeatNumber)
+                .containsExactly(late);
+
+        taken.release();
+    }
+
+    @Test
+    void loadedSeatStateIsReadWithoutTransaction() {
+        Integer showtimeId = createShowtime();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        String version = seatService.getSeatMapVersion(showtimeId);
+        assertThat(statistics.getTransactionCount()).as("transactions loading seat state").isEqualTo(1);
+
+        statistics.clear();
+        assertThat(seatService.getSeatMapVersion(showtimeId)).isEqualTo(version);
+        assertThat(seatService.getPackedSeatMap(showtimeId)).isNotNull();
+        assertThat(statistics.getTransactionCount()).as("transactions").isZero();
+        assertThat(statistics.getConnectCount()).as("connections").isZero();
+    }
+
+    private Integer createShowtime() {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(2).withNano(0);
+        ShowtimeRequest showtime = new ShowtimeRequest();
+        showtime.setMovieId(movieId);
+        showtime.setStartTime(startTime);
+        showtime.setEndTime(startTime.plusHours(2));
+        showtime.setTotalSeats(TOTAL_SEATS);
+        return showtimeService.createShowtime(showtime).getId();
+    }
+
+    private static long counter(String version) {
+        return Long.parseLong(version.substring(version.indexOf('.') + 1));
+    }
+
+    private static class Event {
+        private final Integer showtimeId;
+        private final SeatLayout layout;
+        private final int[] indices;
+        private final boolean booked;
+        private final String version;
+
+        Event(Integer showtimeId, SeatLayout layout, int[] indices, boolean booked, String version) {
+            this.showtimeId = showtimeId;
+            this.layout = layout;
+            this.indices = indices;
+            this.booked = booked;
+            this.version = version;
+        }
+
+        List<String> seats() {
+            return Arrays.stream(indices).mapToObj(layout::seatNumberAt).toList();
+        }
+    }
+}
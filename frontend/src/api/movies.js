@@ -8,6 +8,13 @@ export const moviesAPI = {
     return response.data
   },
 
+  search: async (q, genre, limit = 20) => {
+    const response = await api.get('/movies/search', {
+      params: { q, genre, limit },
+    })
+    return response.data
+  },
+
   getById: async (id) => {
     const response = await api.get(`/movies/${id}`)
     return response.data
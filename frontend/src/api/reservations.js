@@ -1,13 +1,27 @@
 import api from '../utils/api'
 
 export const reservationsAPI = {
-  create: async (data) => {
-    const response = await api.post('/reservations', data)
+  // Reuse the same idempotencyKey when retrying so the booking is not made twice
+  create: async (data, idempotencyKey, queueToken) => {
+    const headers = {}
+    if (idempotencyKey) headers['Idempotency-Key'] = idempotencyKey
+    if (queueToken) headers['X-Queue-Token'] = queueToken
+    const response = await api.post('/reservations', data, { headers })
     return response.data
   },
 
-  getMyReservations: async () => {
-    const response = await api.get('/reservations/my-reservations')
+  // Books `quantity` adjacent seats picked by the server
+  createBestAvailable: async (showtimeId, quantity, queueToken) => {
+    const response = await api.post('/reservations/best-available', { showtimeId, quantity }, {
+      headers: queueToken ? { 'X-Queue-Token': queueToken } : {},
+    })
+    return response.data
+  },
+
+  getMyReservations: async (cursor) => {
+    const response = await api.get('/reservations/my-reservations', {
+      params: cursor ? { cursor } : {},
+    })
     return response.data
   },
 
@@ -26,8 +40,8 @@ export const reservationsAPI = {
     return response.data
   },
 
-  getAll: async () => {
-    const response = await api.get('/reservations/all')
+  getAll: async (params = {}) => {
+    const response = await api.get('/reservations/all', { params })
     return response.data
   },
 }
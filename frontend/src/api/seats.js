@@ -1,8 +1,81 @@
-import api from '../utils/api'
+import api, { API_BASE_URL } from '../utils/api'
 
 export const seatsAPI = {
   getByShowtimeId: async (showtimeId) => {
     const response = await api.get(`/seats/showtime/${showtimeId}`)
     return response.data
   },
+
+  // Live seat map: a 'snapshot' event ({ version, seats }), then 'booked' / 'released' deltas
+  // ({ version, booked, seats }). Versions are "<epoch>.<n>" and each delta is the next one: a delta the
+  // snapshot already covers is dropped, and a gap means a change was missed, so the stream is reopened.
+  // EventSource cannot send the JWT, so every connection uses a fresh single-use ticket instead
+  subscribe: (showtimeId, { onSnapshot, onBooked, onReleased }) => {
+    let source
+    let current = null
+    let closed = false
+    let retry
+
+    const parseVersion = (version) => {
+      const [epoch, n] = version.split('.')
+      return { epoch, n: Number(n) }
+    }
+
+    const onDelta = (event) => {
+      const delta = JSON.parse(event.data)
+      const version = parseVersion(delta.version)
+      if (!current || version.epoch !== current.epoch || version.n > current.n + 1) {
+        open()
+        return
+      }
+      if (version.n <= current.n) return
+      current = version
+      if (delta.booked) {
+        onBooked(delta.seats)
+      } else {
+        onReleased(delta.seats)
+      }
+    }
+
+    const open = async () => {
+      if (source) source.close()
+      source = null
+      current = null
+      clearTimeout(retry)
+      let ticket
+      try {
+        const response = await api.post(`/seats/showtime/${showtimeId}/stream-ticket`)
+        ticket = response.data.data.ticket
+      } catch (error) {
+        if (!closed) retry = setTimeout(open, 5000)
+        return
+      }
+      if (closed) return
+
+      source = new EventSource(
+        `${API_BASE_URL}/seats/showtime/${showtimeId}/stream?ticket=${encodeURIComponent(ticket)}`
+      )
+      source.addEventListener('snapshot', (event) => {
+        const snapshot = JSON.parse(event.data)
+        current = parseVersion(snapshot.version)
+        onSnapshot(snapshot.seats)
+      })
+      source.addEventListener('booked', onDelta)
+      source.addEventListener('released', onDelta)
+      // The browser's own reconnect would reuse the spent ticket, so reconnect with a new one
+      source.onerror = () => {
+        source.close()
+        if (!closed) retry = setTimeout(open, 3000)
+      }
+    }
+
+    open()
+    return {
+      close: () => {
+        closed = true
+        clearTimeout(retry)
+        if (source) source.close()
+      },
+    }
+  },
 }
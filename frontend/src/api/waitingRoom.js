@@ -0,0 +1,16 @@
+import api from '../utils/api'
+
+export const waitingRoomAPI = {
+  // Returns the user's ticket; admitted straight away when the showtime has no waiting room
+  join: async (showtimeId) => {
+    const response = await api.post(`/waiting-room/showtime/${showtimeId}`)
+    return response.data
+  },
+
+  getPosition: async (showtimeId, token) => {
+    const response = await api.get(`/waiting-room/showtime/${showtimeId}`, {
+      headers: { 'X-Queue-Token': token },
+    })
+    return response.data
+  },
+}
@@ -5,18 +5,23 @@ import toast from 'react-hot-toast'
 
 const Movies = () => {
   const [movies, setMovies] = useState([])
+  const [genres, setGenres] = useState({})
+  const [query, setQuery] = useState('')
+  const [genre, setGenre] = useState('')
   const [loading, setLoading] = useState(true)
 
+  // Search as the user types, once typing pauses briefly
   useEffect(() => {
-    fetchMovies()
-  }, [])
+    const timer = setTimeout(() => fetchMovies(query, genre), query ? 150 : 0)
+    return () => clearTimeout(timer)
+  }, [query, genre])
 
-  const fetchMovies = async () => {
+  const fetchMovies = async (q, selectedGenre) => {
     try {
-      setLoading(true)
-      const response = await moviesAPI.getAll(0, 100, false)
+      const response = await moviesAPI.search(q || undefined, selectedGenre || undefined, 100)
       if (response.success) {
-        setMovies(response.data || [])
+        setMovies(response.data.movies || [])
+        setGenres(response.data.genres || {})
       }
     } catch (error) {
       toast.error('Failed to load movies')
@@ -37,11 +42,35 @@ const Movies = () => {
 
   return (
     <div className="container mx-auto px-4 py-8">
-      <h1 className="text-3xl font-bold text-gray-900 dark:text-white mb-8">All Movies</h1>
-      
+      <h1 className="text-3xl font-bold text-gray-900 dark:text-white mb-6">All Movies</h1>
+
+      <input
+        type="search"
+        value={query}
+        onChange={(e) => setQuery(e.target.value)}
+        placeholder="Search by title, genre or description"
+        className="w-full mb-4 px-4 py-2 rounded-lg border border-gray-300 dark:border-gray-600 bg-white dark:bg-gray-800 text-gray-900 dark:text-white"
+      />
+
+      <div className="flex flex-wrap gap-2 mb-8">
+        {Object.entries(genres).map(([name, count]) => (
+          <button
+            key={name}
+            onClick={() => setGenre(genre === name ? '' : name)}
+            className={`px-3 py-1 rounded-full text-sm ${
+              genre === name
+                ? 'bg-blue-600 text-white'
+                : 'bg-gray-200 dark:bg-gray-700 text-gray-800 dark:text-gray-200'
+            }`}
+          >
+            {name} ({count})
+          </button>
+        ))}
+      </div>
+
       {movies.length === 0 ? (
         <div className="text-center py-12">
-          <p className="text-gray-600 dark:text-gray-400">No movies available</p>
+          <p className="text-gray-600 dark:text-gray-400">{query || genre ? 'No movies match your search' : 'No movies available'}</p>
         </div>
       ) : (
         <div className="grid grid-cols-1 sm:grid-cols-2 md:grid-cols-3 lg:grid-cols-4 gap-6">
@@ -4,7 +4,9 @@ import toast from 'react-hot-toast'
 
 const MyBookings = () => {
   const [reservations, setReservations] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
   const [loading, setLoading] = useState(true)
+  const [loadingMore, setLoadingMore] = useState(false)
 
   useEffect(() => {
     fetchReservations()
@@ -15,7 +17,8 @@ const MyBookings = () => {
       setLoading(true)
       const response = await reservationsAPI.getMyReservations()
       if (response.success) {
-        setReservations(response.data || [])
+        setReservations(response.data?.items || [])
+        setNextCursor(response.data?.nextCursor || null)
       }
     } catch (error) {
       toast.error('Failed to load reservations')
@@ -24,6 +27,21 @@ const MyBookings = () => {
     }
   }
 
+  const loadMore = async () => {
+    try {
+      setLoadingMore(true)
+      const response = await reservationsAPI.getMyReservations(nextCursor)
+      if (response.success) {
+        setReservations((current) => [...current, ...(response.data?.items || [])])
+        setNextCursor(response.data?.nextCursor || null)
+      }
+    } catch (error) {
+      toast.error('Failed to load reservations')
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   const handleCancel = async (id) => {
     if (!window.confirm('Are you sure you want to cancel this reservation?')) {
       return
@@ -107,6 +125,17 @@ const MyBookings = () => {
               </div>
             )
           })}
+          {nextCursor && (
+            <div className="text-center">
+              <button
+                onClick={loadMore}
+                disabled={loadingMore}
+                className="bg-blue-600 hover:bg-blue-700 disabled:opacity-50 text-white px-4 py-2 rounded-md text-sm"
+              >
+                {loadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
         </div>
       )}
     </div>
@@ -3,8 +3,17 @@ import { useParams, useNavigate } from 'react-router-dom'
 import { seatsAPI } from '../api/seats'
 import { showtimesAPI } from '../api/showtimes'
 import { reservationsAPI } from '../api/reservations'
+import { waitingRoomAPI } from '../api/waitingRoom'
 import toast from 'react-hot-toast'
 
+const sortSeats = (seats) =>
+  [...seats].sort((a, b) => {
+    const aRow = a.seatNumber.charCodeAt(0)
+    const bRow = b.seatNumber.charCodeAt(0)
+    if (aRow !== bRow) return aRow - bRow
+    return parseInt(a.seatNumber.slice(1)) - parseInt(b.seatNumber.slice(1))
+  })
+
 const SeatBooking = () => {
   const { showtimeId } = useParams()
   const navigate = useNavigate()
@@ -13,12 +22,60 @@ const SeatBooking = () => {
   const [selectedSeats, setSelectedSeats] = useState([])
   const [loading, setLoading] = useState(true)
   const [booking, setBooking] = useState(false)
+  const [ticket, setTicket] = useState(null)
 
   useEffect(() => {
     fetchShowtime()
     fetchSeats()
   }, [showtimeId])
 
+  // Keep the map current without refreshing
+  useEffect(() => {
+    const setBooked = (seatNumbers, isBooked) => {
+      const changed = new Set(seatNumbers)
+      setSeats((current) =>
+        current.map((seat) => (changed.has(seat.seatNumber) ? { ...seat, isBooked } : seat))
+      )
+      if (isBooked) {
+        setSelectedSeats((current) => current.filter((seatNumber) => !changed.has(seatNumber)))
+      }
+    }
+
+    const source = seatsAPI.subscribe(showtimeId, {
+      onSnapshot: (snapshot) => setSeats(sortSeats(snapshot)),
+      onBooked: (seatNumbers) => setBooked(seatNumbers, true),
+      onReleased: (seatNumbers) => setBooked(seatNumbers, false),
+    })
+    return () => source.close()
+  }, [showtimeId])
+
+  // Wait our turn if the showtime has a waiting room; re-checks as the ETA comes down
+  useEffect(() => {
+    let timer
+    let cancelled = false
+    const poll = async (current) => {
+      try {
+        const response = current
+          ? await waitingRoomAPI.getPosition(showtimeId, current.token)
+          : await waitingRoomAPI.join(showtimeId)
+        if (cancelled || !response.success) return
+        setTicket(response.data)
+        if (!response.data.admitted) {
+          const delay = Math.min(Math.max(response.data.etaSeconds, 1), 5) * 1000
+          timer = setTimeout(() => poll(response.data), delay)
+        }
+      } catch (error) {
+        const retryAfter = parseInt(error.response?.headers?.['retry-after']) || 5
+        if (!cancelled) timer = setTimeout(() => poll(null), retryAfter * 1000)
+      }
+    }
+    poll(null)
+    return () => {
+      cancelled = true
+      clearTimeout(timer)
+    }
+  }, [showtimeId])
+
   const fetchShowtime = async () => {
     try {
       const response = await showtimesAPI.getById(showtimeId)
@@ -35,13 +92,7 @@ const SeatBooking = () => {
       setLoading(true)
       const response = await seatsAPI.getByShowtimeId(showtimeId)
       if (response.success) {
-        const sortedSeats = (response.data || []).sort((a, b) => {
-          const aRow = a.seatNumber.charCodeAt(0)
-          const bRow = b.seatNumber.charCodeAt(0)
-          if (aRow !== bRow) return aRow - bRow
-          return parseInt(a.seatNumber.slice(1)) - parseInt(b.seatNumber.slice(1))
-        })
-        setSeats(sortedSeats)
+        setSeats(sortSeats(response.data || []))
       }
     } catch (error) {
       toast.error('Failed to load seats')
@@ -66,10 +117,14 @@ const SeatBooking = () => {
 
     try {
       setBooking(true)
-      const response = await reservationsAPI.create({
-        showtimeId: parseInt(showtimeId),
-        seatNumbers: selectedSeats,
-      })
+      const response = await reservationsAPI.create(
+        {
+          showtimeId: parseInt(showtimeId),
+          seatNumbers: selectedSeats,
+        },
+        crypto.randomUUID(),
+        ticket?.token
+      )
 
       if (response.success) {
         toast.success('Reservation created successfully!')
@@ -182,9 +237,14 @@ const SeatBooking = () => {
                 Total: ₹{totalPrice}
               </p>
             </div>
+            {ticket && !ticket.admitted && (
+              <p className="text-sm text-amber-600 dark:text-amber-400 mb-4">
+                You are number {ticket.position} in the queue, about {ticket.etaSeconds}s to go
+              </p>
+            )}
             <button
               onClick={handleBooking}
-              disabled={selectedSeats.length === 0 || booking}
+              disabled={selectedSeats.length === 0 || booking || (ticket && !ticket.admitted)}
               className="w-full bg-blue-600 hover:bg-blue-700 text-white py-2 px-4 rounded-md disabled:opacity-50 disabled:cursor-not-allowed"
             >
               {booking ? 'Processing...' : 'Confirm Booking'}